@@ -0,0 +1,106 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.benchmark;
+
+import be.atbash.config.configserver.config.ConfigImpl;
+import be.atbash.config.configserver.config.DefaultConfigBuilder;
+import org.eclipse.microprofile.config.spi.ConfigSource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup of a value by key with a number of ConfigSources, with the ConfigSources frozen (as the server does for the
+ * configuration of an application) or not.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConfigLookupBenchmark {
+
+    private static final int KEYS_PER_SOURCE = 50;
+
+    @Param({"1", "5", "20"})
+    private int sources;
+
+    @Param({"false", "true"})
+    private boolean frozen;
+
+    private ConfigImpl config;
+
+    @Setup
+    public void setup() {
+        ConfigSource[] configSources = new ConfigSource[sources];
+        for (int i = 0; i < sources; i++) {
+            Map<String, String> properties = new HashMap<>();
+            for (int k = 0; k < KEYS_PER_SOURCE; k++) {
+                properties.put("source" + i + ".key" + k, "value" + k);
+            }
+            // Every source defines it, the one with the highest ordinal wins.
+            properties.put("shared.key", "source" + i);
+            if (i == 0) {
+                properties.put("number", "42");
+            }
+            configSources[i] = new MapConfigSource("source" + i, 100 + i, properties);
+        }
+
+        DefaultConfigBuilder builder = new DefaultConfigBuilder();
+        if (frozen) {
+            builder.withImmutableSources();
+        }
+        builder.withSources(configSources);
+        config = (ConfigImpl) builder.build();
+    }
+
+    @Benchmark
+    public String sharedKey() {
+        return config.getValue("shared.key");
+    }
+
+    @Benchmark
+    public String keyOfLowestSource() {
+        // Found in the last source which is consulted.
+        return config.getValue("source0.key10");
+    }
+
+    @Benchmark
+    public String missingKey() {
+        return config.getValue("missing.key");
+    }
+
+    @Benchmark
+    public Integer typedValue() {
+        return config.getValue("number", Integer.class);
+    }
+
+    @Benchmark
+    public int primitiveValue() {
+        return config.getInt("number");
+    }
+
+    @Benchmark
+    public void propertyNames(Blackhole blackhole) {
+        for (String name : config.getPropertyNames()) {
+            blackhole.consume(name);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.benchmark;
+
+import be.atbash.config.configserver.config.converters.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one conversion by each of the built-in converters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConverterBenchmark {
+
+    // Not constant, so that the JIT can't fold the conversion.
+    private String booleanValue = "yes";
+    private String integerValue = "123456";
+    private String longValue = "1234567890123";
+    private String floatValue = "3.1415";
+    private String doubleValue = "2.718281828";
+    private String urlValue = "http://localhost:8080/config";
+    private String className = "java.lang.String";
+    private String isoDate = "2019-03-21";
+    private String isoDateTime = "2019-03-21T10:15:30Z";
+    private String isoDuration = "PT15M";
+    private String unitDuration = "15m";
+
+    @Benchmark
+    public Boolean booleanConverter() {
+        return BooleanConverter.INSTANCE.convert(booleanValue);
+    }
+
+    @Benchmark
+    public boolean primitiveBooleanConverter() {
+        return BooleanConverter.INSTANCE.convertBoolean(booleanValue);
+    }
+
+    @Benchmark
+    public Integer integerConverter() {
+        return IntegerConverter.INSTANCE.convert(integerValue);
+    }
+
+    @Benchmark
+    public int primitiveIntConverter() {
+        return IntegerConverter.INSTANCE.convertInt(integerValue);
+    }
+
+    @Benchmark
+    public Long longConverter() {
+        return LongConverter.INSTANCE.convert(longValue);
+    }
+
+    @Benchmark
+    public long primitiveLongConverter() {
+        return LongConverter.INSTANCE.convertLong(longValue);
+    }
+
+    @Benchmark
+    public Float floatConverter() {
+        return FloatConverter.INSTANCE.convert(floatValue);
+    }
+
+    @Benchmark
+    public Double doubleConverter() {
+        return DoubleConverter.INSTANCE.convert(doubleValue);
+    }
+
+    @Benchmark
+    public double primitiveDoubleConverter() {
+        return DoubleConverter.INSTANCE.convertDouble(doubleValue);
+    }
+
+    @Benchmark
+    public String stringConverter() {
+        return StringConverter.INSTANCE.convert(booleanValue);
+    }
+
+    @Benchmark
+    public URL urlConverter() {
+        return URLConverter.INSTANCE.convert(urlValue);
+    }
+
+    @Benchmark
+    public Class classConverter() {
+        return ClassConverter.INSTANCE.convert(className);
+    }
+
+    @Benchmark
+    public Date dateConverter() {
+        return DateConverter.INSTANCE.convert(isoDate);
+    }
+
+    @Benchmark
+    public Date dateTimeConverter() {
+        return DateConverter.INSTANCE.convert(isoDateTime);
+    }
+
+    @Benchmark
+    public LocalDate localDateConverter() {
+        return LocalDateConverter.INSTANCE.convert(isoDate);
+    }
+
+    @Benchmark
+    public Instant instantConverter() {
+        return InstantConverter.INSTANCE.convert(isoDateTime);
+    }
+
+    @Benchmark
+    public Duration isoDurationConverter() {
+        return DurationConverter.INSTANCE.convert(isoDuration);
+    }
+
+    @Benchmark
+    public Duration unitDurationConverter() {
+        return DurationConverter.INSTANCE.convert(unitDuration);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.benchmark;
+
+import be.atbash.config.configserver.config.converters.ImplicitConverter;
+import be.atbash.config.configserver.config.converters.MicroProfileTypedConverter;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one conversion by an implicit converter; the reflective invocation (how the implicit converters used to work)
+ * compared with the converters returned by {@link ImplicitConverter}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImplicitConverterBenchmark {
+
+    private Constructor<ConstructorType> constructor;
+    private Method valueOfMethod;
+
+    private MicroProfileTypedConverter<ConstructorType> constructorConverter;
+    private MicroProfileTypedConverter<ValueOfType> valueOfConverter;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        constructor = ConstructorType.class.getDeclaredConstructor(String.class);
+        valueOfMethod = ValueOfType.class.getMethod("valueOf", String.class);
+
+        constructorConverter = ImplicitConverter.getImplicitConverter(ConstructorType.class);
+        valueOfConverter = ImplicitConverter.getImplicitConverter(ValueOfType.class);
+    }
+
+    @Benchmark
+    public Object constructorReflection() throws Exception {
+        return constructor.newInstance("value");
+    }
+
+    @Benchmark
+    public Object constructorConverter() {
+        return constructorConverter.convert("value");
+    }
+
+    @Benchmark
+    public Object valueOfReflection() throws Exception {
+        return valueOfMethod.invoke(null, "value");
+    }
+
+    @Benchmark
+    public Object valueOfConverter() {
+        return valueOfConverter.convert("value");
+    }
+
+    @Benchmark
+    public Object lookupConverter() {
+        return ImplicitConverter.getImplicitConverter(ConstructorType.class);
+    }
+
+    public static class ConstructorType {
+
+        private final String value;
+
+        public ConstructorType(String value) {
+            this.value = value;
+        }
+    }
+
+    public static class ValueOfType {
+
+        private final String value;
+
+        private ValueOfType(String value) {
+            this.value = value;
+        }
+
+        public static ValueOfType valueOf(String value) {
+            return new ValueOfType(value);
+        }
+    }
+}
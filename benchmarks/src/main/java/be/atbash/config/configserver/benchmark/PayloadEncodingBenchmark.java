@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.benchmark;
+
+import be.atbash.config.configserver.benchmark.endtoend.ConfigTreeGenerator;
+import be.atbash.config.configserver.config.ConfigReader;
+import be.atbash.config.configserver.config.ConfigSnapshot;
+import be.atbash.config.configserver.config.EncodedPayload;
+import be.atbash.config.configserver.metrics.ConfigServerMetrics;
+import be.atbash.config.configserver.rest.ConfigPayloadEncoder;
+import be.atbash.ee.security.octopus.jwt.encoder.JWTEncoder;
+import be.atbash.util.resource.ResourceUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The encoding path of the ConfigResource; encoding the values of a snapshot (what happens for the first request of a
+ * version) and serving the encoded payload which is kept by the snapshot (all other requests).
+ * <p>
+ * The snapshot is built by the ConfigReader from generated configuration files, the configuration of the reader is
+ * passed as system properties.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadEncodingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int keys;
+
+    private ConfigReader configReader;
+
+    private ConfigPayloadEncoder payloadEncoder;
+
+    private ConfigSnapshot snapshot;
+
+    @Setup
+    public void setup() throws IOException {
+        Path rootDirectory = Files.createTempDirectory("config-benchmark");
+        List<String> applications = ConfigTreeGenerator.generate(rootDirectory, 1, keys);
+        System.setProperty("rootDirectory", rootDirectory.toString());
+        System.setProperty("applications", String.join(",", applications));
+
+        ConfigServerMetrics metrics = new ConfigServerMetrics();
+        configReader = new ConfigReader(ResourceUtil.getInstance(), metrics);
+        configReader.init();
+        payloadEncoder = new ConfigPayloadEncoder(new JWTEncoder(), metrics);
+
+        snapshot = configReader.getSnapshot(applications.get(0), null);
+        payloadEncoder.getPayload(snapshot);
+    }
+
+    @TearDown
+    public void teardown() {
+        configReader.stop();
+    }
+
+    @Benchmark
+    public String encode() {
+        return payloadEncoder.encode(snapshot.getValues());
+    }
+
+    @Benchmark
+    public EncodedPayload encodeAndHash() {
+        return new EncodedPayload(payloadEncoder.encode(snapshot.getValues()));
+    }
+
+    @Benchmark
+    public EncodedPayload cachedPayload() {
+        return payloadEncoder.getPayload(snapshot);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.benchmark;
+
+import be.atbash.config.configserver.config.ConfigImpl;
+import be.atbash.config.configserver.config.DefaultConfigBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * List and array values and the evaluation of variables, with the ConfigSources frozen (where the server keeps the
+ * parsed results) or not.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValueListBenchmark {
+
+    @Param({"false", "true"})
+    private boolean frozen;
+
+    private ConfigImpl config;
+
+    @Setup
+    public void setup() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("names", "alpha, beta, gamma, delta, epsilon, zeta, eta, theta");
+        properties.put("escaped", "a\\,b,c\\,d,e\\,f,g\\,h");
+        properties.put("numbers", "1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16");
+        properties.put("host", "localhost");
+        properties.put("port", "8080");
+        properties.put("base", "http://${host}:${port}");
+        properties.put("url", "${base}/config/${application}");
+        properties.put("application", "app1");
+
+        DefaultConfigBuilder builder = new DefaultConfigBuilder();
+        if (frozen) {
+            builder.withImmutableSources();
+        }
+        builder.withSources(new MapConfigSource("values", 100, properties));
+        config = (ConfigImpl) builder.build();
+    }
+
+    @Benchmark
+    public List<String> stringList() {
+        return config.access("names").getValueList();
+    }
+
+    @Benchmark
+    public List<String> escapedList() {
+        return config.access("escaped").getValueList();
+    }
+
+    @Benchmark
+    public List<Integer> integerList() {
+        return config.access("numbers").as(Integer.class).getValueList();
+    }
+
+    @Benchmark
+    public String[] stringArray() {
+        return config.getValue("names", String[].class);
+    }
+
+    @Benchmark
+    public int[] intArray() {
+        return config.getValue("numbers", int[].class);
+    }
+
+    @Benchmark
+    public Integer[] integerArray() {
+        return config.getValue("numbers", Integer[].class);
+    }
+
+    @Benchmark
+    public String nestedVariables() {
+        return config.access("url").evaluateVariables(true).get();
+    }
+}
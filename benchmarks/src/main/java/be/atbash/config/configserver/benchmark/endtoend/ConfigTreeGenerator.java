@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.benchmark.endtoend;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates a root directory with configuration files (properties) for a number of applications, each with a number of
+ * keys and a 'test' stage which overrides some of them.
+ */
+public final class ConfigTreeGenerator {
+
+    private ConfigTreeGenerator() {
+    }
+
+    /**
+     * @return the names of the generated applications.
+     */
+    public static List<String> generate(Path rootDirectory, int applications, int keys) throws IOException {
+        List<String> result = new ArrayList<>();
+        for (int a = 0; a < applications; a++) {
+            String application = "app" + a;
+            Path directory = Files.createDirectories(rootDirectory.resolve(application));
+
+            try (Writer writer = Files.newBufferedWriter(directory.resolve(application + ".properties"), StandardCharsets.UTF_8)) {
+                for (int k = 0; k < keys; k++) {
+                    writer.write(String.format("%s.key%d=value %d of %s%n", k % 2 == 0 ? "database" : "service", k, k, application));
+                }
+            }
+            try (Writer writer = Files.newBufferedWriter(directory.resolve(application + "-test.properties"), StandardCharsets.UTF_8)) {
+                for (int k = 0; k < keys; k += 10) {
+                    writer.write(String.format("%s.key%d=test value %d of %s%n", k % 2 == 0 ? "database" : "service", k, k, application));
+                }
+            }
+            result.add(application);
+        }
+        return result;
+    }
+}
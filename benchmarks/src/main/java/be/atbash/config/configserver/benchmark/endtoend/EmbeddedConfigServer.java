@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.benchmark.endtoend;
+
+import be.atbash.config.configserver.config.ConfigReader;
+import be.atbash.config.configserver.metrics.ConfigServerMetrics;
+import be.atbash.config.configserver.rest.ConfigPayloadEncoder;
+import be.atbash.config.configserver.rest.ConfigResource;
+import be.atbash.config.configserver.rest.ConfigWatchRegistry;
+import be.atbash.config.configserver.rest.MetricsResource;
+import be.atbash.ee.security.octopus.jwt.encoder.JWTEncoder;
+import be.atbash.util.resource.ResourceUtil;
+import com.sun.net.httpserver.HttpServer;
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
+import org.glassfish.jersey.jdkhttp.JdkHttpServerFactory;
+import org.glassfish.jersey.server.ResourceConfig;
+
+import javax.inject.Singleton;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ConfigResource in the JDK HTTP server, with Jersey. The beans, normally created by CDI, are bound with HK2 and
+ * the configuration of the server (root directory and applications) is passed as system properties.
+ */
+public class EmbeddedConfigServer {
+
+    private final HttpServer httpServer;
+    private final ExecutorService executor;
+    private final URI baseUri;
+
+    public EmbeddedConfigServer(int port, int threads, String rootDirectory, List<String> applications) {
+        System.setProperty("rootDirectory", rootDirectory);
+        System.setProperty("applications", String.join(",", applications));
+
+        baseUri = URI.create("http://localhost:" + port + "/");
+
+        ResourceConfig resourceConfig = new ResourceConfig(ConfigResource.class, MetricsResource.class);
+        resourceConfig.register(new AbstractBinder() {
+            @Override
+            protected void configure() {
+                bind(ResourceUtil.getInstance()).to(ResourceUtil.class);
+                bind(new JWTEncoder()).to(JWTEncoder.class);
+                bindAsContract(ConfigReader.class).in(Singleton.class);
+                bindAsContract(ConfigPayloadEncoder.class).in(Singleton.class);
+                bindAsContract(ConfigWatchRegistry.class).in(Singleton.class);
+                bindAsContract(ConfigServerMetrics.class).in(Singleton.class);
+            }
+        });
+
+        httpServer = JdkHttpServerFactory.createHttpServer(baseUri, resourceConfig, false);
+        // The default executor of the JDK HTTP server handles all requests on one thread.
+        executor = Executors.newFixedThreadPool(threads);
+        httpServer.setExecutor(executor);
+    }
+
+    public void start() {
+        httpServer.start();
+    }
+
+    public void stop() throws InterruptedException {
+        httpServer.stop(0);
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    public URI getBaseUri() {
+        return baseUri;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.benchmark.endtoend;
+
+import be.atbash.ee.security.octopus.jwt.decoder.JWTDecoder;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput and latency of one config server; starts the server in process (see {@link EmbeddedConfigServer}) and
+ * lets a number of concurrent clients retrieve the configuration of a random application, like the
+ * ConfigServerConfigSource does. Options are given as name=value arguments:
+ * <ul>
+ * <li>root : directory with the configuration files, like server/src/demo. When not specified, a tree is generated.</li>
+ * <li>applications : number of generated applications (default 10)</li>
+ * <li>keys : number of keys of each generated application (default 100)</li>
+ * <li>stage : stage requested by the clients (default none)</li>
+ * <li>clients : number of concurrent clients (default 16)</li>
+ * <li>serverThreads : number of threads handling the requests (default 16)</li>
+ * <li>warmup : seconds before measuring (default 10)</li>
+ * <li>duration : seconds measured (default 30)</li>
+ * <li>conditional : clients send the ETag of the previous response, mostly resulting in a 304 (default false)</li>
+ * <li>decode : clients decode the payload as the ConfigServerConfigSource does (default false)</li>
+ * <li>port : port of the server (default 8090)</li>
+ * </ul>
+ * Run with java -cp benchmarks/target/benchmarks.jar be.atbash.config.configserver.benchmark.endtoend.EndToEndBenchmark clients=32
+ */
+public class EndToEndBenchmark {
+
+    private final Map<String, String> options;
+
+    private final LongAdder errors = new LongAdder();
+    private final ConcurrentMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    private volatile boolean measuring;
+    private volatile boolean running = true;
+
+    private EndToEndBenchmark(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator == -1) {
+                throw new IllegalArgumentException(String.format("Argument '%s' must be of the form name=value", arg));
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        new EndToEndBenchmark(options).run();
+    }
+
+    private void run() throws IOException, InterruptedException {
+        List<String> applications = prepareTree();
+
+        int clients = getInt("clients", 16);
+        EmbeddedConfigServer server = new EmbeddedConfigServer(getInt("port", 8090), getInt("serverThreads", 16),
+                options.get("root"), applications);
+        server.start();
+
+        Client client = ClientBuilder.newClient();
+        WebTarget target = client.target(server.getBaseUri()).path("config");
+        List<LatencyRecorder> recorders = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        CountDownLatch stopped = new CountDownLatch(clients);
+        for (int i = 0; i < clients; i++) {
+            LatencyRecorder recorder = new LatencyRecorder();
+            recorders.add(recorder);
+            Thread thread = new Thread(() -> {
+                try {
+                    runClient(target, applications, recorder);
+                } finally {
+                    stopped.countDown();
+                }
+            }, "config-client-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+        }
+
+        System.out.printf("%d applications, %d clients, %d server threads%n", applications.size(), clients, getInt("serverThreads", 16));
+        threads.forEach(Thread::start);
+        Thread.sleep(getInt("warmup", 10) * 1000L);
+
+        statuses.clear();
+        errors.reset();
+        measuring = true;
+        long start = System.nanoTime();
+        Thread.sleep(getInt("duration", 30) * 1000L);
+        measuring = false;
+        long elapsed = System.nanoTime() - start;
+
+        running = false;
+        stopped.await();
+        client.close();
+        server.stop();
+
+        report(recorders, elapsed);
+    }
+
+    private List<String> prepareTree() throws IOException {
+        if (options.containsKey("root")) {
+            List<String> result = new ArrayList<>();
+            File[] directories = new File(options.get("root")).listFiles(File::isDirectory);
+            if (directories != null) {
+                for (File directory : directories) {
+                    result.add(directory.getName());
+                }
+            }
+            return result;
+        }
+        Path root = Files.createTempDirectory("config-server-benchmark");
+        options.put("root", root.toString());
+        return ConfigTreeGenerator.generate(root, getInt("applications", 10), getInt("keys", 100));
+    }
+
+    private void runClient(WebTarget target, List<String> applications, LatencyRecorder recorder) {
+        boolean conditional = getBoolean("conditional");
+        boolean decode = getBoolean("decode");
+        String stage = options.get("stage");
+        JWTDecoder decoder = new JWTDecoder();
+        Map<String, String> entityTags = new HashMap<>();
+
+        while (running) {
+            String application = applications.get(ThreadLocalRandom.current().nextInt(applications.size()));
+            WebTarget applicationTarget = target.path(application);
+            if (stage != null) {
+                applicationTarget = applicationTarget.queryParam("stage", stage);
+            }
+            Invocation.Builder request = applicationTarget.request();
+            if (conditional && entityTags.containsKey(application)) {
+                request.header(HttpHeaders.IF_NONE_MATCH, entityTags.get(application));
+            }
+
+            long start = System.nanoTime();
+            try {
+                Response response = request.get();
+                try {
+                    if (response.getStatus() == 200) {
+                        String payload = response.readEntity(String.class);
+                        if (decode) {
+                            decoder.decode(payload, HashMap.class);
+                        }
+                        entityTags.put(application, response.getHeaderString(HttpHeaders.ETAG));
+                    }
+                } finally {
+                    response.close();
+                }
+                if (measuring) {
+                    recorder.record(System.nanoTime() - start);
+                    statuses.computeIfAbsent(response.getStatus(), s -> new LongAdder()).increment();
+                }
+            } catch (RuntimeException e) {
+                if (measuring) {
+                    errors.increment();
+                }
+            }
+        }
+    }
+
+    private void report(List<LatencyRecorder> recorders, long elapsedNanos) {
+        long[] latencies = LatencyRecorder.merge(recorders);
+        double seconds = elapsedNanos / 1_000_000_000.0;
+
+        System.out.printf("requests   : %d in %.1f s%n", latencies.length, seconds);
+        System.out.printf("throughput : %.0f requests/s%n", latencies.length / seconds);
+        System.out.printf("p50        : %.3f ms%n", toMillis(LatencyRecorder.percentile(latencies, 50)));
+        System.out.printf("p99        : %.3f ms%n", toMillis(LatencyRecorder.percentile(latencies, 99)));
+        System.out.printf("p99.9      : %.3f ms%n", toMillis(LatencyRecorder.percentile(latencies, 99.9)));
+        System.out.printf("max        : %.3f ms%n", toMillis(latencies.length == 0 ? 0 : latencies[latencies.length - 1]));
+        new TreeMap<>(statuses).forEach((status, count) -> System.out.printf("status %d : %d%n", status, count.sum()));
+        System.out.printf("errors     : %d%n", errors.sum());
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private int getInt(String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private boolean getBoolean(String name) {
+        return Boolean.parseBoolean(options.get(name));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * Local copy of the last configuration retrieved from the Config server. The first line contains the endpoint the
+ * values are retrieved from and the ETag of the response, separated by a space. The remainder is the payload as it is
+ * sent by the server.
+ */
+final class ConfigServerCacheFile {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConfigServerCacheFile.class);
+
+    private final Path file;
+
+    ConfigServerCacheFile(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @return the cached payload or null when there is no (valid) cache file for the endpoint.
+     */
+    CachedPayload read(String endpoint) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            // One sequential read, the file is small.
+            String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            int endOfLine = content.indexOf('\n');
+            if (endOfLine == -1) {
+                LOG.warn(String.format("Ignoring invalid cache file %s", file));
+                return null;
+            }
+            String header = content.substring(0, endOfLine);
+            int separator = header.indexOf(' ');
+            if (separator == -1 || !endpoint.equals(header.substring(0, separator))) {
+                // Values of another application or stage (or of an older version of the file)
+                LOG.info(String.format("Ignoring cache file %s, it doesn't contain the values of %s", file, endpoint));
+                return null;
+            }
+            return new CachedPayload(header.substring(separator + 1), content.substring(endOfLine + 1));
+        } catch (IOException e) {
+            LOG.warn(String.format("Unable to read cache file %s", file), e);
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the cache file, atomically when supported by the file system, so that a reader never sees a partial
+     * file.
+     */
+    void write(String endpoint, String entityTag, String payload) {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = null;
+        try {
+            Files.createDirectories(directory);
+            temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            String content = endpoint + " " + (entityTag == null ? "" : entityTag) + "\n" + payload;
+            Files.write(temporary, content.getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOG.warn(String.format("Unable to write cache file %s", file), e);
+            deleteQuietly(temporary);
+        }
+    }
+
+    /**
+     * Removes the cache file, for example when it contains a payload which can't be decoded.
+     */
+    void delete() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.warn(String.format("Unable to delete cache file %s", file), e);
+        }
+    }
+
+    private static void deleteQuietly(Path temporary) {
+        if (temporary == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temporary);
+        } catch (IOException e) {
+            // Not important, just a leftover temporary file
+        }
+    }
+
+    static final class CachedPayload {
+
+        private final String entityTag;
+        private final String payload;
+
+        CachedPayload(String entityTag, String payload) {
+            this.entityTag = entityTag;
+            this.payload = payload;
+        }
+
+        String getEntityTag() {
+            return entityTag;
+        }
+
+        String getPayload() {
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.client;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * JAX-RS Clients shared by all ConfigSources of the JVM, one for each combination of timeouts (so in practice just
+ * one). A Client is thread safe and keeps its connections alive between requests.
+ */
+final class ConfigServerClients {
+
+    // JAX-RS 2.0 has no API for the timeouts, the properties of the common implementations are set.
+    private static final String[] CONNECT_TIMEOUT_PROPERTIES = {"jersey.config.client.connectTimeout", "http.connection.timeout"};
+    private static final String[] READ_TIMEOUT_PROPERTIES = {"jersey.config.client.readTimeout", "http.receive.timeout"};
+
+    private static final ConcurrentMap<String, Client> CLIENTS = new ConcurrentHashMap<>();
+
+    private ConfigServerClients() {
+    }
+
+    /**
+     * @param connectTimeout in milliseconds, 0 means no timeout.
+     * @param readTimeout    in milliseconds, 0 means no timeout.
+     */
+    static Client getClient(int connectTimeout, int readTimeout) {
+        String key = connectTimeout + "/" + readTimeout;
+        Client result = CLIENTS.get(key);
+        if (result == null) {
+            result = CLIENTS.computeIfAbsent(key, k -> createClient(connectTimeout, readTimeout));
+        }
+        return result;
+    }
+
+    private static Client createClient(int connectTimeout, int readTimeout) {
+        ClientBuilder builder = ClientBuilder.newBuilder();
+        for (String property : CONNECT_TIMEOUT_PROPERTIES) {
+            builder.property(property, connectTimeout);
+        }
+        for (String property : READ_TIMEOUT_PROPERTIES) {
+            builder.property(property, readTimeout);
+        }
+        return builder.build();
+    }
+}
@@ -25,31 +25,231 @@ import org.eclipse.microprofile.config.spi.ConfigSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Invocation;
 import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
+import java.lang.ref.WeakReference;
+import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 
 /**
  *
  */
 
-public class ConfigServerConfigSource implements ConfigSource {
+public class ConfigServerConfigSource implements ConfigSource, AutoCloseable {
 
     private static final Logger LOG = LoggerFactory.getLogger(ConfigServerConfigSource.class);
     private static final Pattern WORD_PATTERN = Pattern.compile("\\w*");
 
-    private Map<String, String> properties;
+    // milliseconds
+    private static final int DEFAULT_CONNECT_TIMEOUT = 5000;
+    private static final int DEFAULT_READ_TIMEOUT = 10000;
 
-    private void init() {
-        if (properties == null) {
-            properties = new HashMap<>();
-            String configServerURL = null;
-            String application = null;
+    // One thread for refreshing the configuration of all ConfigSources, it ends when there is nothing to refresh.
+    private static final ScheduledThreadPoolExecutor REFRESHER = createRefresher();
+
+    // Threads for retrieving the first values, so that they don't wait behind the refreshes.
+    private static final ExecutorService PREFETCHER = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "config-server-prefetch");
+        thread.setDaemon(true);
+        thread.setContextClassLoader(ConfigServerConfigSource.class.getClassLoader());
+        return thread;
+    });
+
+    // Set while the settings of a ConfigSource are read, ConfigProvider calls this ConfigSource again.
+    private static final ThreadLocal<Boolean> LOADING = new ThreadLocal<>();
+
+    // Immutable, replaced as a whole when new values are retrieved. Null until the first values are retrieved.
+    private volatile Map<String, String> properties;
+
+    // ETag of the values in properties
+    private volatile String entityTag;
+
+    // The retrieval of the first values, only one at a time. Back to null when it failed so that the next reader tries again.
+    private final AtomicReference<Retrieval> loader = new AtomicReference<>();
+
+    private volatile boolean closed;
+
+    private volatile ScheduledFuture<?> scheduledRefresh;
+
+    // Assigned by the thread which retrieves the first values, before they are published.
+    private Settings settings;
+
+    public ConfigServerConfigSource() {
+        if (!isLoading()) {
+            // Retrieve the values while the application continues starting.
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            Retrieval prefetch = new Retrieval();
+            loader.set(prefetch);
+            PREFETCHER.execute(() -> prefetch(prefetch, classLoader));
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor createRefresher() {
+        ScheduledThreadPoolExecutor result = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "config-server-refresh");
+            thread.setDaemon(true);
+            // Don't keep the class loader of the application which happens to create the thread.
+            thread.setContextClassLoader(ConfigServerConfigSource.class.getClassLoader());
+            return thread;
+        });
+        result.setKeepAliveTime(60, TimeUnit.SECONDS);
+        result.allowCoreThreadTimeOut(true);
+        result.setRemoveOnCancelPolicy(true);
+        return result;
+    }
+
+    private static boolean isLoading() {
+        return LOADING.get() != null;
+    }
+
+    private Map<String, String> init() {
+        Map<String, String> result = properties;
+        while (result == null) {
+            Retrieval current = loader.get();
+            if (current == null) {
+                Retrieval own = new Retrieval();
+                if (!loader.compareAndSet(null, own)) {
+                    // Another thread started the retrieval.
+                    continue;
+                }
+                current = own;
+            }
+            if (current.claim()) {
+                // The prefetch didn't read the settings yet. It could be waiting on the Config this thread is
+                // creating, so this thread does the retrieval.
+                load(current, Thread.currentThread().getContextClassLoader());
+            }
+            // Claimed by the prefetch after reading the settings, it only needs the file system and the server.
+            await(current);
+            // Never null, a retrieval which completes normally has published values.
+            result = properties;
+        }
+        return result;
+    }
+
+    private static void await(Retrieval current) {
+        try {
+            current.done.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new AtbashUnexpectedException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AtbashUnexpectedException(e);
+        }
+    }
+
+    /**
+     * Reads the settings and retrieves the values, unless a reader claimed the retrieval in the meantime.
+     */
+    private void prefetch(Retrieval retrieval, ClassLoader classLoader) {
+        if (retrieval.isClaimed()) {
+            return;
+        }
+        Thread thread = Thread.currentThread();
+        ClassLoader previousClassLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(classLoader);
+        try {
+            Settings prefetchSettings;
+            try {
+                prefetchSettings = readSettings();
+            } catch (RuntimeException | Error e) {
+                if (retrieval.claim()) {
+                    failed(retrieval, e);
+                }
+                return;
+            }
+            if (retrieval.claim()) {
+                retrieve(retrieval, prefetchSettings);
+            }
+        } finally {
+            thread.setContextClassLoader(previousClassLoader);
+        }
+    }
+
+    /**
+     * Reads the settings and retrieves the values on the current thread.
+     */
+    private void load(Retrieval retrieval, ClassLoader classLoader) {
+        Thread thread = Thread.currentThread();
+        ClassLoader previousClassLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(classLoader);
+        try {
+            Settings loadSettings;
+            try {
+                loadSettings = readSettings();
+            } catch (RuntimeException | Error e) {
+                failed(retrieval, e);
+                return;
+            }
+            retrieve(retrieval, loadSettings);
+        } finally {
+            thread.setContextClassLoader(previousClassLoader);
+        }
+    }
+
+    /**
+     * Retrieves the first values and completes the retrieval. The exception is not thrown but kept in the retrieval,
+     * for all readers waiting on it.
+     */
+    private void retrieve(Retrieval retrieval, Settings retrievalSettings) {
+        settings = retrievalSettings;
+        try {
+            ConfigServerCacheFile cacheFile = settings.cacheFile;
+            ConfigServerCacheFile.CachedPayload cached = cacheFile == null ? null : cacheFile.read(settings.endpoint);
+            Map<String, String> cachedValues = cached == null ? null : decodeCached(cached);
+            if (cachedValues != null) {
+                // Start with the values of the previous run, the server is contacted in the background.
+                publish(new ServerValues(cachedValues, StringUtils.hasText(cached.getEntityTag()) ? cached.getEntityTag() : null));
+                REFRESHER.execute(new RefreshTask(this));
+            } else {
+                // No If-None-Match, the server always sends the values.
+                ServerValues serverValues = readFromServer(null);
+                if (serverValues == null) {
+                    throw new AtbashUnexpectedException(String.format("Unexpected 304 response from %s", settings.endpoint));
+                }
+                publish(serverValues);
+                scheduleRefresh();
+            }
+            retrieval.done.complete(null);
+        } catch (RuntimeException | Error e) {
+            failed(retrieval, e);
+        }
+    }
+
+    private void failed(Retrieval retrieval, Throwable e) {
+        loader.compareAndSet(retrieval, null);
+        retrieval.done.completeExceptionally(e);
+    }
+
+    private Settings readSettings() {
+        LOADING.set(Boolean.TRUE);
+        try {
+            String configServerURL;
+            String application;
             try {
                 configServerURL = ConfigProvider.getConfig().getValue("config.server.url", String.class);
                 application = ConfigProvider.getConfig().getValue("config.server.app", String.class);
@@ -61,23 +261,137 @@ public class ConfigServerConfigSource implements ConfigSource {
             checkValue(application, true, "config.server.app");
             checkValue(stage, false, "config.server.stage");
 
-            WebTarget target = ClientBuilder.newClient().target(defineConfigServerEndpoint(configServerURL, application, stage));
-            Response response = target.request().buildGet().invoke();
+            String endpoint = defineConfigServerEndpoint(configServerURL, application, stage);
 
-            if (response.getStatus() == 200) {
-                String config = response.readEntity(String.class);
-                JWTDecoder decoder = new JWTDecoder();
-                properties.putAll(decoder.decode(config, HashMap.class));
-            }
+            Long configuredRefreshInterval = ConfigOptionalValue.getValue("config.server.refreshInterval", Long.class);
+            long refreshInterval = configuredRefreshInterval == null ? 0 : TimeUnit.SECONDS.toMillis(configuredRefreshInterval);
+
+            Integer configuredConnectTimeout = ConfigOptionalValue.getValue("config.server.connectTimeout", Integer.class);
+            int connectTimeout = configuredConnectTimeout == null ? DEFAULT_CONNECT_TIMEOUT : configuredConnectTimeout;
+            Integer configuredReadTimeout = ConfigOptionalValue.getValue("config.server.readTimeout", Integer.class);
+            int readTimeout = configuredReadTimeout == null ? DEFAULT_READ_TIMEOUT : configuredReadTimeout;
+
+            String cacheFileName = ConfigOptionalValue.getValue("config.server.cacheFile", String.class);
+            ConfigServerCacheFile cacheFile = StringUtils.hasText(cacheFileName) ? new ConfigServerCacheFile(Paths.get(cacheFileName)) : null;
+
+            return new Settings(endpoint, application, cacheFile, refreshInterval, connectTimeout, readTimeout);
+        } finally {
+            LOADING.remove();
+        }
+    }
+
+    /**
+     * The ETag is assigned together with the values, so that it always belongs to the values which are published.
+     */
+    private void publish(ServerValues serverValues) {
+        entityTag = serverValues.entityTag;
+        properties = serverValues.values;
+    }
+
+    /**
+     * @param ifNoneMatch ETag of the current values, or null to always receive the values.
+     * @return the values from the server or null when the server indicates the values didn't change (304).
+     */
+    private ServerValues readFromServer(String ifNoneMatch) {
+        WebTarget target = ConfigServerClients.getClient(settings.connectTimeout, settings.readTimeout).target(settings.endpoint);
+        Invocation.Builder request = target.request();
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        Response response = request.buildGet().invoke();
+        try {
+            return handleResponse(response);
+        } finally {
+            // Releases the connection, so that it can be reused.
+            response.close();
+        }
+    }
 
-            if (response.getStatus() == 204) {
-                throw new ConfigurationException(String.format("Application '%s' not known by the Atbash Config Server", application));
+    private ServerValues handleResponse(Response response) {
+        if (response.getStatus() == 200) {
+            String config = response.readEntity(String.class);
+            Map<String, String> result = decode(config);
+            String responseEntityTag = response.getHeaderString(HttpHeaders.ETAG);
+            if (settings.cacheFile != null) {
+                settings.cacheFile.write(settings.endpoint, responseEntityTag, config);
             }
+            return new ServerValues(result, responseEntityTag);
+        }
+
+        if (response.getStatus() == 304) {
+            return null;
+        }
+
+        if (response.getStatus() == 204) {
+            throw new ConfigurationException(String.format("Application '%s' not known by the Atbash Config Server", settings.application));
+        }
+
+        if (response.getStatus() > 204) {
+            throw new AtbashUnexpectedException(response.readEntity(String.class));
+        }
+        return new ServerValues(Collections.<String, String>emptyMap(), null);
+    }
 
-            if (response.getStatus() > 204) {
-                throw new AtbashUnexpectedException(response.readEntity(String.class));
+    private void refresh() {
+        if (closed) {
+            return;
+        }
+        try {
+            // Only called once values are published, the ETag belongs to them.
+            ServerValues serverValues = readFromServer(entityTag);
+            if (serverValues != null) {
+                publish(serverValues);
             }
+        } catch (RuntimeException e) {
+            LOG.warn(String.format("Unable to refresh the configuration from %s, current values are kept", settings.endpoint), e);
+        }
+        scheduleRefresh();
+    }
+
+    private void scheduleRefresh() {
+        long refreshInterval = settings.refreshInterval;
+        if (refreshInterval <= 0) {
+            return;
         }
+        // Up to 10% jitter so that the clients started at the same time don't contact the server at the same time.
+        long jitter = refreshInterval / 10;
+        long delay = refreshInterval - jitter + ThreadLocalRandom.current().nextLong(2 * jitter + 1);
+        if (!closed) {
+            scheduledRefresh = REFRESHER.schedule(new RefreshTask(this), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops the refresh of the values, called when the Config is released. The values which are already retrieved
+     * remain available.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        ScheduledFuture<?> current = scheduledRefresh;
+        if (current != null) {
+            current.cancel(false);
+        }
+    }
+
+    /**
+     * @return the values of the cache file or null when the payload can't be decoded, the file is then removed.
+     */
+    private Map<String, String> decodeCached(ConfigServerCacheFile.CachedPayload cached) {
+        try {
+            return decode(cached.getPayload());
+        } catch (RuntimeException e) {
+            LOG.warn("Ignoring and removing the cache file as it contains invalid values", e);
+            settings.cacheFile.delete();
+            return null;
+        }
+    }
+
+    private static Map<String, String> decode(String config) {
+        JWTDecoder decoder = new JWTDecoder();
+        Map<String, String> result = new HashMap<>();
+        result.putAll(decoder.decode(config, HashMap.class));
+        return Collections.unmodifiableMap(result);
     }
 
     private void checkValue(String value, boolean required, String parameterName) {
@@ -112,21 +426,39 @@ public class ConfigServerConfigSource implements ConfigSource {
 
     @Override
     public Map<String, String> getProperties() {
-        init();
-        return properties;
+        Map<String, String> result = properties;
+        if (result == null) {
+            if (isLoading()) {
+                return Collections.emptyMap();
+            }
+            result = init();
+        }
+        return result;
     }
 
     @Override
     public Set<String> getPropertyNames() {
-        init();
-
-        return properties.keySet();
+        Map<String, String> result = properties;
+        if (result == null) {
+            if (isLoading()) {
+                return Collections.emptySet();
+            }
+            result = init();
+        }
+        return result.keySet();
     }
 
     @Override
     public String getValue(String s) {
-        init();
-        return properties.get(s);
+        Map<String, String> result = properties;
+        if (result == null) {
+            if (isLoading()) {
+                // Called through ConfigProvider while the settings of the Config server are read.
+                return null;
+            }
+            result = init();
+        }
+        return result.get(s);
     }
 
     @Override
@@ -138,4 +470,74 @@ public class ConfigServerConfigSource implements ConfigSource {
     public int getOrdinal() {
         return 350;
     }
+
+    /**
+     * One retrieval of the first values. It is claimed by the thread which does the actual retrieval, the prefetch
+     * once it has read the settings or the first reader when the prefetch didn't get that far.
+     */
+    private static final class Retrieval {
+
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        boolean isClaimed() {
+            return claimed.get();
+        }
+    }
+
+    private static final class ServerValues {
+
+        private final Map<String, String> values;
+        private final String entityTag;
+
+        ServerValues(Map<String, String> values, String entityTag) {
+            this.values = values;
+            this.entityTag = entityTag;
+        }
+    }
+
+    private static final class Settings {
+
+        private final String endpoint;
+        private final String application;
+        private final ConfigServerCacheFile cacheFile;
+        // milliseconds
+        private final long refreshInterval;
+        private final int connectTimeout;
+        private final int readTimeout;
+
+        Settings(String endpoint, String application, ConfigServerCacheFile cacheFile, long refreshInterval, int connectTimeout, int readTimeout) {
+            this.endpoint = endpoint;
+            this.application = application;
+            this.cacheFile = cacheFile;
+            this.refreshInterval = refreshInterval;
+            this.connectTimeout = connectTimeout;
+            this.readTimeout = readTimeout;
+        }
+    }
+
+    /**
+     * Refreshes the values of the ConfigSource as long as it is in use. The ConfigSource is not kept alive by the
+     * refresh, when it is no longer referenced the refreshes end.
+     */
+    private static final class RefreshTask implements Runnable {
+
+        private final WeakReference<ConfigServerConfigSource> configSource;
+
+        RefreshTask(ConfigServerConfigSource configSource) {
+            this.configSource = new WeakReference<>(configSource);
+        }
+
+        @Override
+        public void run() {
+            ConfigServerConfigSource current = configSource.get();
+            if (current != null) {
+                current.refresh();
+            }
+        }
+    }
 }
@@ -22,9 +22,18 @@ import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import javax.ws.rs.ProcessingException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
 
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -36,9 +45,14 @@ import static org.junit.Assert.fail;
 
 public class ConfigServerConfigSourceTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private WireMockServer wireMockServer;
     private WireMock wireMock;
 
+    private final List<ConfigServerConfigSource> configSources = new ArrayList<>();
+
     @Before
     public void setup() {
         wireMockServer = new WireMockServer(wireMockConfig().dynamicPort());
@@ -50,6 +64,10 @@ public class ConfigServerConfigSourceTest {
 
     @After
     public void teardown() {
+        // Stops the refresh, so that it doesn't continue during the other tests.
+        for (ConfigServerConfigSource configSource : configSources) {
+            configSource.close();
+        }
         TestConfig.resetConfig();
         wireMockServer.stop();
 
@@ -68,7 +86,7 @@ public class ConfigServerConfigSourceTest {
                         .withBody("{\"data\":\"value\"}")
                 ));
 
-        ConfigServerConfigSource configSource = new ConfigServerConfigSource();
+        ConfigServerConfigSource configSource = createConfigSource();
         String data = configSource.getValue("data");
 
         assertThat(data).isEqualTo("value");
@@ -86,7 +104,7 @@ public class ConfigServerConfigSourceTest {
                         .withStatus(204)
                 ));
 
-        ConfigServerConfigSource configSource = new ConfigServerConfigSource();
+        ConfigServerConfigSource configSource = createConfigSource();
 
         try {
             configSource.getValue("data");
@@ -110,7 +128,7 @@ public class ConfigServerConfigSourceTest {
                         .withBody("The Server exception")
                 ));
 
-        ConfigServerConfigSource configSource = new ConfigServerConfigSource();
+        ConfigServerConfigSource configSource = createConfigSource();
 
         try {
             configSource.getValue("data");
@@ -125,7 +143,7 @@ public class ConfigServerConfigSourceTest {
     @Test
     public void getValue_MissingServerUrl() {
 
-        ConfigServerConfigSource configSource = new ConfigServerConfigSource();
+        ConfigServerConfigSource configSource = createConfigSource();
         try {
             configSource.getValue("data");
         } catch (ConfigurationException e) {
@@ -138,7 +156,7 @@ public class ConfigServerConfigSourceTest {
     public void getValue_MissingApplication() {
         TestConfig.addConfigValue("config.server.url", "http://localhost:" + wireMockServer.port());
 
-        ConfigServerConfigSource configSource = new ConfigServerConfigSource();
+        ConfigServerConfigSource configSource = createConfigSource();
         try {
             configSource.getValue("data");
         } catch (ConfigurationException e) {
@@ -152,7 +170,7 @@ public class ConfigServerConfigSourceTest {
         TestConfig.addConfigValue("config.server.url", "blablabla");
         TestConfig.addConfigValue("config.server.app", "test");
 
-        ConfigServerConfigSource configSource = new ConfigServerConfigSource();
+        ConfigServerConfigSource configSource = createConfigSource();
         try {
             configSource.getValue("data");
         } catch (ProcessingException e) {
@@ -165,7 +183,7 @@ public class ConfigServerConfigSourceTest {
         TestConfig.addConfigValue("config.server.url", "http://localhost:" + wireMockServer.port());
         TestConfig.addConfigValue("config.server.app", "");
 
-        ConfigServerConfigSource configSource = new ConfigServerConfigSource();
+        ConfigServerConfigSource configSource = createConfigSource();
         try {
             configSource.getValue("data");
         } catch (ConfigurationException e) {
@@ -179,7 +197,7 @@ public class ConfigServerConfigSourceTest {
         TestConfig.addConfigValue("config.server.url", "http://localhost:" + wireMockServer.port());
         TestConfig.addConfigValue("config.server.app", "test&");
 
-        ConfigServerConfigSource configSource = new ConfigServerConfigSource();
+        ConfigServerConfigSource configSource = createConfigSource();
         try {
             configSource.getValue("data");
         } catch (ConfigurationException e) {
@@ -188,4 +206,381 @@ public class ConfigServerConfigSourceTest {
 
     }
 
+    @Test
+    public void getValue_writesCacheFile() throws IOException {
+        TestConfig.addConfigValue("config.server.url", "http://localhost:" + wireMockServer.port());
+        String appValue = "testApp";
+        TestConfig.addConfigValue("config.server.app", appValue);
+        String endpoint = "http://localhost:" + wireMockServer.port() + "/config/" + appValue;
+        File cacheFile = new File(temporaryFolder.getRoot(), "config-cache.txt");
+        TestConfig.addConfigValue("config.server.cacheFile", cacheFile.getAbsolutePath());
+
+        wireMock.register(WireMock.get(WireMock.urlEqualTo("/config/" + appValue))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("ETag", "\"hash1\"")
+                        .withBody("{\"data\":\"value\"}")
+                ));
+
+        ConfigServerConfigSource configSource = createConfigSource();
+        String data = configSource.getValue("data");
+
+        assertThat(data).isEqualTo("value");
+        assertThat(readFile(cacheFile)).isEqualTo(endpoint + " \"hash1\"\n{\"data\":\"value\"}");
+    }
+
+    @Test
+    public void getValue_fromCacheFile() throws IOException, InterruptedException {
+        TestConfig.addConfigValue("config.server.url", "http://localhost:" + wireMockServer.port());
+        String appValue = "testApp";
+        TestConfig.addConfigValue("config.server.app", appValue);
+        String endpoint = "http://localhost:" + wireMockServer.port() + "/config/" + appValue;
+        File cacheFile = new File(temporaryFolder.getRoot(), "config-cache.txt");
+        writeFile(cacheFile, endpoint + " \"hash1\"\n{\"data\":\"cached\"}");
+        TestConfig.addConfigValue("config.server.cacheFile", cacheFile.getAbsolutePath());
+
+        wireMock.register(WireMock.get(WireMock.urlEqualTo("/config/" + appValue))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("ETag", "\"hash2\"")
+                        .withBody("{\"data\":\"value\"}")
+                        .withFixedDelay(500)
+                ));
+
+        ConfigServerConfigSource configSource = createConfigSource();
+        // Values from the cache file, without waiting for the server
+        assertThat(configSource.getValue("data")).isEqualTo("cached");
+
+        // Values from the server once they are retrieved in the background
+        assertThat(waitForValue(configSource, "data", "value")).isTrue();
+        assertThat(readFile(cacheFile)).isEqualTo(endpoint + " \"hash2\"\n{\"data\":\"value\"}");
+    }
+
+    @Test
+    public void getValue_fromCacheFile_serverError() throws IOException, InterruptedException {
+        TestConfig.addConfigValue("config.server.url", "http://localhost:" + wireMockServer.port());
+        String appValue = "testApp";
+        TestConfig.addConfigValue("config.server.app", appValue);
+        String endpoint = "http://localhost:" + wireMockServer.port() + "/config/" + appValue;
+        File cacheFile = new File(temporaryFolder.getRoot(), "config-cache.txt");
+        writeFile(cacheFile, endpoint + " \"hash1\"\n{\"data\":\"cached\"}");
+        TestConfig.addConfigValue("config.server.cacheFile", cacheFile.getAbsolutePath());
+
+        wireMock.register(WireMock.get(WireMock.urlEqualTo("/config/" + appValue))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(500)
+                        .withBody("The Server exception")
+                ));
+
+        ConfigServerConfigSource configSource = createConfigSource();
+        assertThat(configSource.getValue("data")).isEqualTo("cached");
+
+        waitForRequests(appValue, 1);
+        assertThat(configSource.getValue("data")).isEqualTo("cached");
+        assertThat(readFile(cacheFile)).isEqualTo(endpoint + " \"hash1\"\n{\"data\":\"cached\"}");
+    }
+
+    @Test
+    public void getValue_fromCacheFile_invalid() throws IOException {
+        TestConfig.addConfigValue("config.server.url", "http://localhost:" + wireMockServer.port());
+        String appValue = "testApp";
+        TestConfig.addConfigValue("config.server.app", appValue);
+        String endpoint = "http://localhost:" + wireMockServer.port() + "/config/" + appValue;
+        File cacheFile = new File(temporaryFolder.getRoot(), "config-cache.txt");
+        writeFile(cacheFile, endpoint + " \"hash1\"\n{\"data\":\"cach");
+        TestConfig.addConfigValue("config.server.cacheFile", cacheFile.getAbsolutePath());
+
+        wireMock.register(WireMock.get(WireMock.urlEqualTo("/config/" + appValue))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("ETag", "\"hash2\"")
+                        .withBody("{\"data\":\"value\"}")
+                ));
+
+        ConfigServerConfigSource configSource = createConfigSource();
+        // Truncated cache file is ignored, values from the server
+        assertThat(configSource.getValue("data")).isEqualTo("value");
+        assertThat(readFile(cacheFile)).isEqualTo(endpoint + " \"hash2\"\n{\"data\":\"value\"}");
+    }
+
+    @Test
+    public void getValue_fromCacheFile_otherApplication() throws IOException {
+        TestConfig.addConfigValue("config.server.url", "http://localhost:" + wireMockServer.port());
+        String appValue = "testApp";
+        TestConfig.addConfigValue("config.server.app", appValue);
+        File cacheFile = new File(temporaryFolder.getRoot(), "config-cache.txt");
+        writeFile(cacheFile, "http://localhost:" + wireMockServer.port() + "/config/otherApp \"hash1\"\n{\"data\":\"cached\"}");
+        TestConfig.addConfigValue("config.server.cacheFile", cacheFile.getAbsolutePath());
+
+        wireMock.register(WireMock.get(WireMock.urlEqualTo("/config/" + appValue))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withBody("{\"data\":\"value\"}")
+                ));
+
+        ConfigServerConfigSource configSource = createConfigSource();
+        // Values of another application are never used
+        assertThat(configSource.getValue("data")).isEqualTo("value");
+    }
+
+    @Test
+    public void getValue_refresh() throws InterruptedException {
+        TestConfig.addConfigValue("config.server.url", "http://localhost:" + wireMockServer.port());
+        String appValue = "testApp";
+        TestConfig.addConfigValue("config.server.app", appValue);
+        TestConfig.addConfigValue("config.server.refreshInterval", "1");
+
+        wireMock.register(WireMock.get(WireMock.urlEqualTo("/config/" + appValue))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("ETag", "\"hash1\"")
+                        .withBody("{\"data\":\"value\"}")
+                ));
+
+        ConfigServerConfigSource configSource = createConfigSource();
+        assertThat(configSource.getValue("data")).isEqualTo("value");
+
+        wireMock.register(WireMock.get(WireMock.urlEqualTo("/config/" + appValue))
+                .withHeader("If-None-Match", WireMock.equalTo("\"hash1\""))
+                .atPriority(1)
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("ETag", "\"hash2\"")
+                        .withBody("{\"data\":\"changed\"}")
+                ));
+
+        assertThat(waitForValue(configSource, "data", "changed")).isTrue();
+    }
+
+    @Test
+    public void getValue_refresh_notModified() throws InterruptedException {
+        TestConfig.addConfigValue("config.server.url", "http://localhost:" + wireMockServer.port());
+        String appValue = "testApp";
+        TestConfig.addConfigValue("config.server.app", appValue);
+        TestConfig.addConfigValue("config.server.refreshInterval", "1");
+
+        wireMock.register(WireMock.get(WireMock.urlEqualTo("/config/" + appValue))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("ETag", "\"hash1\"")
+                        .withBody("{\"data\":\"value\"}")
+                ));
+        wireMock.register(WireMock.get(WireMock.urlEqualTo("/config/" + appValue))
+                .withHeader("If-None-Match", WireMock.equalTo("\"hash1\""))
+                .atPriority(1)
+                .willReturn(WireMock.aResponse()
+                        .withStatus(304)
+                ));
+
+        ConfigServerConfigSource configSource = createConfigSource();
+        assertThat(configSource.getValue("data")).isEqualTo("value");
+
+        waitForRequests(appValue, 2);
+
+        // 304 keeps the values
+        assertThat(configSource.getValue("data")).isEqualTo("value");
+        wireMock.verifyThat(WireMock.moreThanOrExactly(1), WireMock.getRequestedFor(WireMock.urlEqualTo("/config/" + appValue))
+                .withHeader("If-None-Match", WireMock.equalTo("\"hash1\"")));
+    }
+
+    @Test
+    public void getValue_refresh_stoppedByClose() throws InterruptedException {
+        TestConfig.addConfigValue("config.server.url", "http://localhost:" + wireMockServer.port());
+        String appValue = "testApp";
+        TestConfig.addConfigValue("config.server.app", appValue);
+        TestConfig.addConfigValue("config.server.refreshInterval", "1");
+
+        wireMock.register(WireMock.get(WireMock.urlEqualTo("/config/" + appValue))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withBody("{\"data\":\"value\"}")
+                ));
+
+        ConfigServerConfigSource configSource = createConfigSource();
+        assertThat(configSource.getValue("data")).isEqualTo("value");
+        waitForRequests(appValue, 2);
+
+        configSource.close();
+        int requests = wireMock.find(WireMock.getRequestedFor(WireMock.urlEqualTo("/config/" + appValue))).size();
+        Thread.sleep(2500);
+
+        // At most a refresh which was already running when closed.
+        assertThat(wireMock.find(WireMock.getRequestedFor(WireMock.urlEqualTo("/config/" + appValue))).size()).isLessThanOrEqualTo(requests + 1);
+        assertThat(configSource.getValue("data")).isEqualTo("value");
+    }
+
+    @Test
+    public void getValue_readTimeout() {
+        TestConfig.addConfigValue("config.server.url", "http://localhost:" + wireMockServer.port());
+        String appValue = "testApp";
+        TestConfig.addConfigValue("config.server.app", appValue);
+        TestConfig.addConfigValue("config.server.readTimeout", "200");
+
+        wireMock.register(WireMock.get(WireMock.urlEqualTo("/config/" + appValue))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withBody("{\"data\":\"value\"}")
+                        .withFixedDelay(2000)
+                ));
+
+        ConfigServerConfigSource configSource = createConfigSource();
+        long start = System.currentTimeMillis();
+        try {
+            configSource.getValue("data");
+            fail("ProcessingException expected for read timeout");
+        } catch (ProcessingException e) {
+            assertThat(System.currentTimeMillis() - start).isLessThan(2000);
+        }
+    }
+
+    @Test
+    public void getValue_prefetched() throws InterruptedException {
+        TestConfig.addConfigValue("config.server.url", "http://localhost:" + wireMockServer.port());
+        String appValue = "testApp";
+        TestConfig.addConfigValue("config.server.app", appValue);
+
+        wireMock.register(WireMock.get(WireMock.urlEqualTo("/config/" + appValue))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withBody("{\"data\":\"value\"}")
+                ));
+
+        ConfigServerConfigSource configSource = createConfigSource();
+
+        // Retrieved without a read of a value
+        waitForRequests(appValue, 1);
+        wireMock.verifyThat(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/config/" + appValue)));
+
+        assertThat(configSource.getValue("data")).isEqualTo("value");
+        wireMock.verifyThat(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/config/" + appValue)));
+    }
+
+    @Test
+    public void getValue_prefetchFailed_retried() {
+        TestConfig.addConfigValue("config.server.url", "http://localhost:" + wireMockServer.port());
+        String appValue = "testApp";
+        TestConfig.addConfigValue("config.server.app", appValue);
+
+        wireMock.register(WireMock.get(WireMock.urlEqualTo("/config/" + appValue))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(400)
+                        .withBody("The Server exception")
+                ));
+
+        ConfigServerConfigSource configSource = createConfigSource();
+        try {
+            configSource.getValue("data");
+            fail("AtbashUnexpectedException expected for Server error");
+        } catch (AtbashUnexpectedException e) {
+            assertThat(e.getMessage()).isEqualTo("The Server exception");
+        }
+
+        wireMock.register(WireMock.get(WireMock.urlEqualTo("/config/" + appValue))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withBody("{\"data\":\"value\"}")
+                ));
+
+        assertThat(configSource.getValue("data")).isEqualTo("value");
+    }
+
+    @Test
+    public void getValue_firstRequestUnconditional() {
+        TestConfig.addConfigValue("config.server.url", "http://localhost:" + wireMockServer.port());
+        String appValue = "testApp";
+        TestConfig.addConfigValue("config.server.app", appValue);
+
+        wireMock.register(WireMock.get(WireMock.urlEqualTo("/config/" + appValue))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("ETag", "\"hash1\"")
+                        .withBody("{\"data\":\"value\"}")
+                ));
+        wireMock.register(WireMock.get(WireMock.urlEqualTo("/config/" + appValue))
+                .withHeader("If-None-Match", WireMock.matching(".*"))
+                .atPriority(1)
+                .willReturn(WireMock.aResponse()
+                        .withStatus(304)
+                ));
+
+        ConfigServerConfigSource configSource = createConfigSource();
+        assertThat(configSource.getValue("data")).isEqualTo("value");
+
+        wireMock.verifyThat(0, WireMock.getRequestedFor(WireMock.urlEqualTo("/config/" + appValue))
+                .withHeader("If-None-Match", WireMock.matching(".*")));
+    }
+
+    @Test
+    public void getValue_concurrentReaders() throws Exception {
+        TestConfig.addConfigValue("config.server.url", "http://localhost:" + wireMockServer.port());
+        String appValue = "testApp";
+        TestConfig.addConfigValue("config.server.app", appValue);
+
+        wireMock.register(WireMock.get(WireMock.urlEqualTo("/config/" + appValue))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withFixedDelay(500)
+                        .withBody("{\"data\":\"value\"}")
+                ));
+
+        ConfigServerConfigSource configSource = createConfigSource();
+
+        int readers = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return configSource.getValue("data");
+                }));
+            }
+            start.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("value");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        wireMock.verifyThat(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/config/" + appValue)));
+    }
+
+    private ConfigServerConfigSource createConfigSource() {
+        ConfigServerConfigSource result = new ConfigServerConfigSource();
+        configSources.add(result);
+        return result;
+    }
+
+    private boolean waitForValue(ConfigServerConfigSource configSource, String key, String expected) throws InterruptedException {
+        long end = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < end) {
+            if (expected.equals(configSource.getValue(key))) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+
+    private void waitForRequests(String appValue, int count) throws InterruptedException {
+        long end = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < end
+                && wireMock.find(WireMock.getRequestedFor(WireMock.urlEqualTo("/config/" + appValue))).size() < count) {
+            Thread.sleep(20);
+        }
+        // Give the client the time to handle the response
+        Thread.sleep(100);
+    }
+
+    private static String readFile(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static void writeFile(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config;
+
+import java.util.*;
+
+/**
+ * Differences between 2 versions of the configuration values of an application.
+ */
+public final class ConfigDelta {
+
+    private final Map<String, String> added = new TreeMap<>();
+    private final Map<String, String> changed = new TreeMap<>();
+    private final Set<String> removed = new TreeSet<>();
+
+    private ConfigDelta() {
+    }
+
+    public static ConfigDelta between(Map<String, String> previous, Map<String, String> current) {
+        ConfigDelta result = new ConfigDelta();
+        for (Map.Entry<String, String> entry : current.entrySet()) {
+            String previousValue = previous.get(entry.getKey());
+            if (previousValue == null) {
+                result.added.put(entry.getKey(), entry.getValue());
+            } else if (!previousValue.equals(entry.getValue())) {
+                result.changed.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (String key : previous.keySet()) {
+            if (!current.containsKey(key)) {
+                result.removed.add(key);
+            }
+        }
+        return result;
+    }
+
+    public Map<String, String> getAdded() {
+        return Collections.unmodifiableMap(added);
+    }
+
+    public Map<String, String> getChanged() {
+        return Collections.unmodifiableMap(changed);
+    }
+
+    public Set<String> getRemoved() {
+        return Collections.unmodifiableSet(removed);
+    }
+
+    /**
+     * All keys which are added, changed or removed, sorted.
+     */
+    public Set<String> getKeys() {
+        Set<String> result = new TreeSet<>(added.keySet());
+        result.addAll(changed.keySet());
+        result.addAll(removed);
+        return result;
+    }
+}
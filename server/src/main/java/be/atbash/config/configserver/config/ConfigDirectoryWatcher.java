@@ -0,0 +1,190 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Keeps track of changes to the configuration files below the root directory and let the {@link ConfigReader} rebuild
+ * the affected snapshots. Uses a {@link WatchService} on the root directory and each application directory, and falls
+ * back to polling the modification time of the files when no WatchService is available for the root directory.
+ */
+class ConfigDirectoryWatcher {
+
+    private static final Logger LOGGER = Logger.getLogger(ConfigDirectoryWatcher.class.getName());
+
+    // Editors typically generate several events for one save, wait a bit for the others before rebuilding.
+    private static final long SETTLE_TIME_MS = 50;
+
+    private final ConfigReader configReader;
+    private final Path rootDirectory;
+    private final List<String> applications;
+    private final int pollInterval;
+
+    private WatchService watchService;
+    private Thread watchThread;
+    private ScheduledExecutorService pollExecutor;
+
+    ConfigDirectoryWatcher(ConfigReader configReader, String rootDirectory, List<String> applications, int pollInterval) {
+        this.configReader = configReader;
+        this.rootDirectory = toPath(rootDirectory);
+        this.applications = applications;
+        this.pollInterval = pollInterval;
+    }
+
+    void start() {
+        if (rootDirectory != null && Files.isDirectory(rootDirectory)) {
+            try {
+                watchService = rootDirectory.getFileSystem().newWatchService();
+                rootDirectory.register(watchService, ENTRY_CREATE);
+                for (String application : applications) {
+                    registerApplicationDirectory(rootDirectory.resolve(application));
+                }
+                watchThread = new Thread(this::watch, "config-directory-watcher");
+                watchThread.setDaemon(true);
+                watchThread.start();
+                return;
+            } catch (IOException | UnsupportedOperationException e) {
+                LOGGER.log(Level.WARNING, "Unable to watch the root directory, falling back to polling", e);
+                closeWatchService();
+                watchService = null;
+            }
+        }
+
+        pollExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "config-directory-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        pollExecutor.scheduleWithFixedDelay(this::poll, pollInterval, pollInterval, TimeUnit.SECONDS);
+    }
+
+    void stop() {
+        closeWatchService();
+        if (pollExecutor != null) {
+            pollExecutor.shutdownNow();
+        }
+    }
+
+    private void registerApplicationDirectory(Path directory) throws IOException {
+        if (Files.isDirectory(directory)) {
+            directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                Map<String, Set<String>> changedFiles = new HashMap<>();
+                Set<String> changedApplications = new HashSet<>();
+
+                WatchKey watchKey = watchService.take();
+                while (watchKey != null) {
+                    collectChanges(watchKey, changedFiles, changedApplications);
+                    watchKey = watchService.poll(SETTLE_TIME_MS, TimeUnit.MILLISECONDS);
+                }
+
+                try {
+                    for (String application : changedApplications) {
+                        configReader.rebuildApplication(application);
+                        changedFiles.remove(application);
+                    }
+                    for (Map.Entry<String, Set<String>> entry : changedFiles.entrySet()) {
+                        configReader.rebuildFiles(entry.getKey(), entry.getValue());
+                    }
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Rebuilding the configuration after a file change failed", e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // stop() is called
+        }
+    }
+
+    private void collectChanges(WatchKey watchKey, Map<String, Set<String>> changedFiles, Set<String> changedApplications) {
+        Path directory = (Path) watchKey.watchable();
+        boolean root = directory.equals(rootDirectory);
+        String application = root ? null : directory.getFileName().toString();
+
+        for (WatchEvent<?> event : watchKey.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                if (root) {
+                    changedApplications.addAll(applications);
+                } else {
+                    changedApplications.add(application);
+                }
+                continue;
+            }
+            String fileName = event.context().toString();
+            if (root) {
+                if (applications.contains(fileName)) {
+                    // Application directory (re)created.
+                    try {
+                        registerApplicationDirectory(rootDirectory.resolve(fileName));
+                    } catch (IOException e) {
+                        LOGGER.log(Level.WARNING, String.format("Unable to watch the directory of application '%s'", fileName), e);
+                    }
+                    changedApplications.add(fileName);
+                }
+            } else {
+                changedFiles.computeIfAbsent(application, k -> new HashSet<>()).add(fileName);
+            }
+        }
+
+        if (!watchKey.reset() && !root) {
+            // Directory of the application is removed.
+            changedApplications.add(application);
+        }
+    }
+
+    private void poll() {
+        try {
+            configReader.rebuildModified();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Checking the configuration files for changes failed", e);
+        }
+    }
+
+    private void closeWatchService() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Closing the WatchService failed", e);
+            }
+        }
+    }
+
+    private static Path toPath(String rootDirectory) {
+        try {
+            return Paths.get(rootDirectory);
+        } catch (InvalidPathException e) {
+            // Not a directory on the file system (like a classpath: location)
+            return null;
+        }
+    }
+}
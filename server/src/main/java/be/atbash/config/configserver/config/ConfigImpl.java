@@ -15,8 +15,7 @@
  */
 package be.atbash.config.configserver.config;
 
-import be.atbash.config.configserver.config.converters.ImplicitArrayConverter;
-import be.atbash.config.configserver.config.converters.MicroProfileTypedConverter;
+import be.atbash.config.configserver.config.converters.*;
 import org.eclipse.microprofile.config.Config;
 import org.eclipse.microprofile.config.spi.ConfigSource;
 import org.eclipse.microprofile.config.spi.Converter;
@@ -24,12 +23,16 @@ import org.eclipse.microprofile.config.spi.Converter;
 import javax.enterprise.inject.Typed;
 import javax.enterprise.inject.Vetoed;
 import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URL;
+import java.time.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 
 import static be.atbash.config.configserver.config.converters.ImplicitConverter.getImplicitConverter;
 
@@ -39,40 +42,226 @@ import static be.atbash.config.configserver.config.converters.ImplicitConverter.
 @Typed
 @Vetoed
 public class ConfigImpl implements Config {
-    private static final String ARRAY_SEPARATOR_REGEX = "(?<!\\\\)" + Pattern.quote(",");
+    private static final int MAX_CACHED_ENTRIES = 1024;
+
+    // Types of the default converters (except String and Date) and other JDK value types. Their values can't be
+    // modified, so a cached value can be shared by all callers.
+    private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.<Class<?>>asList(
+            Boolean.class, Byte.class, Short.class, Character.class, Integer.class, Long.class, Float.class, Double.class,
+            BigInteger.class, BigDecimal.class, Class.class, URL.class, URI.class, UUID.class,
+            LocalDate.class, LocalTime.class, LocalDateTime.class, OffsetDateTime.class, ZonedDateTime.class,
+            Instant.class, Duration.class, Period.class));
 
     protected Logger logger = Logger.getLogger(ConfigImpl.class.getName());
 
     protected List<ConfigSource> configSources = new ArrayList<>();
     protected final ConcurrentMap<Type, MicroProfileTypedConverter> converters = new ConcurrentHashMap<>();
     private final ImplicitArrayConverter implicitArrayConverter = new ImplicitArrayConverter(this);
+    private final ConcurrentMap<Class<?>, MicroProfileTypedConverter<?>> implicitArrayConverters = new ConcurrentHashMap<>();
+
+    // Only set when the ConfigSources are frozen, see freeze()
+    private volatile Map<String, String> index;
+    private volatile Set<String> propertyNames;
+
+    // Only set when enabled, see enableValueCache()
+    private volatile ConvertedValueCache valueCache;
+
+    private final PrimitiveValueCache primitiveValues = new PrimitiveValueCache();
+
+    // Only used when the ConfigSources are frozen, the values can't change anymore.
+    private final ConcurrentMap<String, List<String>> tokens = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, VariableTemplate> templates = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> expandedValues = new ConcurrentHashMap<>();
 
     @Override
     public <T> T getOptionalValue(String propertyName, Class<T> asType) {
+        ConvertedValueCache cache = getValueCache(asType);
+        if (cache != null) {
+            T cached = cache.get(propertyName, asType);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
         String value = getValue(propertyName);
         if (value != null && value.length() == 0) {
             // treat an empty string as not existing
             value = null;
         }
-        return convert(value, asType);
+        T result = convert(value, asType);
+        if (cache != null && result != null) {
+            cache.put(propertyName, asType, result);
+        }
+        return result;
     }
 
     @Override
     public <T> T getValue(String propertyName, Class<T> propertyType) {
+        ConvertedValueCache cache = getValueCache(propertyType);
+        if (cache != null) {
+            T cached = cache.get(propertyName, propertyType);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        String value = getValue(propertyName);
+        if (value == null || value.isEmpty()) {
+            throw new NoSuchElementException("No configured value found for config key " + propertyName);
+        }
+
+        T result = convert(value, propertyType);
+        if (cache != null && result != null) {
+            cache.put(propertyName, propertyType, result);
+        }
+        return result;
+    }
+
+    private ConvertedValueCache getValueCache(Class<?> type) {
+        // Values can only be cached when they can't change, also not by the caller which receives the shared value.
+        // Strings need no conversion (and would fill the cache when the snapshot reads all values).
+        if (index == null || !isImmutable(type)) {
+            return null;
+        }
+        return valueCache;
+    }
+
+    private static boolean isImmutable(Class<?> type) {
+        return type.isPrimitive() || type.isEnum() || IMMUTABLE_TYPES.contains(type);
+    }
+
+    /**
+     * Value as an int, without boxing. When the ConfigSources are frozen, the parsed value is kept.
+     */
+    public int getInt(String propertyName) {
+        boolean frozen = index != null;
+        if (frozen) {
+            PrimitiveValueCache.IntValue cached = primitiveValues.getInt(propertyName);
+            if (cached != null) {
+                return cached.value;
+            }
+        }
+        int result = convertInt(getRequiredValue(propertyName));
+        if (frozen) {
+            primitiveValues.putInt(propertyName, result);
+        }
+        return result;
+    }
+
+    /**
+     * Value as a long, without boxing. When the ConfigSources are frozen, the parsed value is kept.
+     */
+    public long getLong(String propertyName) {
+        boolean frozen = index != null;
+        if (frozen) {
+            PrimitiveValueCache.LongValue cached = primitiveValues.getLong(propertyName);
+            if (cached != null) {
+                return cached.value;
+            }
+        }
+        long result = convertLong(getRequiredValue(propertyName));
+        if (frozen) {
+            primitiveValues.putLong(propertyName, result);
+        }
+        return result;
+    }
+
+    /**
+     * Value as a double, without boxing. When the ConfigSources are frozen, the parsed value is kept.
+     */
+    public double getDouble(String propertyName) {
+        boolean frozen = index != null;
+        if (frozen) {
+            PrimitiveValueCache.DoubleValue cached = primitiveValues.getDouble(propertyName);
+            if (cached != null) {
+                return cached.value;
+            }
+        }
+        double result = convertDouble(getRequiredValue(propertyName));
+        if (frozen) {
+            primitiveValues.putDouble(propertyName, result);
+        }
+        return result;
+    }
+
+    /**
+     * Value as a boolean, without boxing. When the ConfigSources are frozen, the parsed value is kept.
+     */
+    public boolean getBoolean(String propertyName) {
+        boolean frozen = index != null;
+        if (frozen) {
+            PrimitiveValueCache.BooleanValue cached = primitiveValues.getBoolean(propertyName);
+            if (cached != null) {
+                return cached.value;
+            }
+        }
+        boolean result = convertBoolean(getRequiredValue(propertyName));
+        if (frozen) {
+            primitiveValues.putBoolean(propertyName, result);
+        }
+        return result;
+    }
+
+    private String getRequiredValue(String propertyName) {
         String value = getValue(propertyName);
         if (value == null || value.isEmpty()) {
             throw new NoSuchElementException("No configured value found for config key " + propertyName);
         }
+        return value;
+    }
 
-        return convert(value, propertyType);
+    public int convertInt(String value) {
+        Converter<?> converter = getPrimitiveConverter(int.class);
+        if (converter instanceof PrimitiveIntConverter) {
+            return ((PrimitiveIntConverter) converter).convertInt(value);
+        }
+        return (Integer) converter.convert(value);
+    }
+
+    public long convertLong(String value) {
+        Converter<?> converter = getPrimitiveConverter(long.class);
+        if (converter instanceof PrimitiveLongConverter) {
+            return ((PrimitiveLongConverter) converter).convertLong(value);
+        }
+        return (Long) converter.convert(value);
+    }
+
+    public double convertDouble(String value) {
+        Converter<?> converter = getPrimitiveConverter(double.class);
+        if (converter instanceof PrimitiveDoubleConverter) {
+            return ((PrimitiveDoubleConverter) converter).convertDouble(value);
+        }
+        return (Double) converter.convert(value);
+    }
+
+    public boolean convertBoolean(String value) {
+        Converter<?> converter = getPrimitiveConverter(boolean.class);
+        if (converter instanceof PrimitiveBooleanConverter) {
+            return ((PrimitiveBooleanConverter) converter).convertBoolean(value);
+        }
+        return (Boolean) converter.convert(value);
+    }
+
+    private Converter<?> getPrimitiveConverter(Class<?> type) {
+        MicroProfileTypedConverter<?> converter = converters.get(type);
+        if (converter == null) {
+            throw new IllegalArgumentException(String.format("Unable to find converter for type %s", type.getName()));
+        }
+        return converter.getDelegate();
     }
 
     public String getValue(String key) {
+        Map<String, String> mergedValues = index;
+        if (mergedValues != null) {
+            return mergedValues.get(key);
+        }
+
+        boolean logValue = logger.isLoggable(Level.FINE);
         for (ConfigSource configSource : configSources) {
             String value = configSource.getValue(key);
 
             if (value != null) {
-                if (logger.isLoggable(Level.FINE)) {
+                if (logValue) {
                     logger.log(Level.FINE, "found value {0} for key {1} in ConfigSource {2}.",
                             new Object[]{value, key, configSource.getName()});
                 }
@@ -98,24 +287,34 @@ public class ConfigImpl implements Config {
 
     public <T> List<T> convertList(String rawValue, Class<T> arrayElementType) {
         MicroProfileTypedConverter<T> converter = getConverter(arrayElementType);
-        String[] parts = rawValue.split(ARRAY_SEPARATOR_REGEX);
-        if (parts.length == 0) {
-            return Collections.emptyList();
-        }
-        List<T> elements = new ArrayList<>(parts.length);
+        List<String> parts = getTokens(rawValue);
+        List<T> elements = new ArrayList<>(parts.size());
         for (String part : parts) {
-            part = part.replace("\\,", ",");
-            T converted = converter.convert(part);
-            elements.add(converted);
+            elements.add(converter.convert(part));
         }
         return elements;
     }
 
-    private <T> MicroProfileTypedConverter<T> getConverter(Class<T> asType) {
-        MicroProfileTypedConverter<T> result = null;
-        if (converters.containsKey(asType)) {
-            result = converters.get(asType);
+    /**
+     * Elements of the list value, see {@link ValueListTokenizer}. When the ConfigSources are frozen, the result is kept
+     * for the next time.
+     */
+    public List<String> getTokens(String rawValue) {
+        if (index == null) {
+            return ValueListTokenizer.tokenize(rawValue);
+        }
+        List<String> result = tokens.get(rawValue);
+        if (result == null) {
+            result = Collections.unmodifiableList(ValueListTokenizer.tokenize(rawValue));
+            if (tokens.size() < MAX_CACHED_ENTRIES) {
+                tokens.putIfAbsent(rawValue, result);
+            }
         }
+        return result;
+    }
+
+    private <T> MicroProfileTypedConverter<T> getConverter(Class<T> asType) {
+        MicroProfileTypedConverter<T> result = converters.get(asType);
         if (result == null) {
             result = handleMissingConverter(asType);
         }
@@ -124,18 +323,76 @@ public class ConfigImpl implements Config {
 
     private <T> MicroProfileTypedConverter<T> handleMissingConverter(final Class<T> asType) {
         if (asType.isArray()) {
-            return new MicroProfileTypedConverter<T>(new ImplicitArrayMPTypedConverter(asType));
+            return (MicroProfileTypedConverter<T>) implicitArrayConverters.computeIfAbsent(asType,
+                    type -> new MicroProfileTypedConverter<T>(new ImplicitArrayMPTypedConverter<T>(type)));
         } else {
             return getImplicitConverter(asType);
         }
     }
 
+    /**
+     * Value of the key with all <code>${name}</code> variables replaced by their (expanded) value, or null when the
+     * key has no value. When the ConfigSources are frozen, the result is kept for the next time.
+     *
+     * @throws NoSuchElementException   when a variable has no value.
+     * @throws IllegalArgumentException when variables refer to each other in a cycle.
+     */
+    public String getExpandedValue(String key) {
+        if (getValue(key) == null) {
+            return null;
+        }
+        return expandVariable(key, new LinkedHashSet<>());
+    }
+
+    private String expandVariable(String key, Set<String> resolving) {
+        boolean frozen = index != null;
+        if (frozen) {
+            String cached = expandedValues.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        if (!resolving.add(key)) {
+            throw new IllegalArgumentException(String.format("Cyclic reference of variables: %s -> %s", String.join(" -> ", resolving), key));
+        }
+        String value = getValue(key);
+        if (value == null) {
+            throw new NoSuchElementException("No config value present for key " + key);
+        }
+        String result = getTemplate(value).expand(name -> expandVariable(name, resolving));
+        resolving.remove(key);
+
+        if (frozen && expandedValues.size() < MAX_CACHED_ENTRIES) {
+            expandedValues.putIfAbsent(key, result);
+        }
+        return result;
+    }
+
+    private VariableTemplate getTemplate(String value) {
+        if (index == null) {
+            return VariableTemplate.compile(value);
+        }
+        VariableTemplate result = templates.get(value);
+        if (result == null) {
+            result = VariableTemplate.compile(value);
+            if (templates.size() < MAX_CACHED_ENTRIES) {
+                templates.putIfAbsent(value, result);
+            }
+        }
+        return result;
+    }
+
     public ConfigValueImpl<String> access(String key) {
         return new ConfigValueImpl<>(this, key);
     }
 
     @Override
     public Iterable<String> getPropertyNames() {
+        Set<String> names = propertyNames;
+        if (names != null) {
+            return names;
+        }
         Set<String> result = new HashSet<>();
 
         for (ConfigSource configSource : configSources) {
@@ -156,10 +413,59 @@ public class ConfigImpl implements Config {
 
         // finally put all the configSources back into the map
         configSources = sortDescending(allConfigSources);
+
+        if (index != null) {
+            freeze();
+        }
+        clearValueCache();
+    }
+
+    /**
+     * Merges the values of all ConfigSources, resolved according to their ordinal, into one index. Afterwards, a value
+     * is retrieved with a single lookup and the property names are no longer collected for each call. Only to be used
+     * when the values of the ConfigSources don't change anymore.
+     */
+    public synchronized void freeze() {
+        Map<String, String> mergedValues = new HashMap<>();
+        // configSources are sorted on descending ordinal, the highest ordinal must win.
+        for (int i = configSources.size() - 1; i >= 0; i--) {
+            for (Map.Entry<String, String> entry : configSources.get(i).getProperties().entrySet()) {
+                if (entry.getValue() != null) {
+                    mergedValues.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        index = mergedValues;
+        propertyNames = Collections.unmodifiableSet(mergedValues.keySet());
+    }
+
+    public boolean isFrozen() {
+        return index != null;
+    }
+
+    /**
+     * Keeps the converted values, for at most maximumSize key and type combinations, so that the conversion is only
+     * performed once. Only used when the ConfigSources are frozen. The cached values are shared between all callers,
+     * so only values of known immutable types (like Integer, URL, LocalDate and enums) are kept.
+     */
+    public void enableValueCache(int maximumSize) {
+        valueCache = maximumSize > 0 ? new ConvertedValueCache(maximumSize) : null;
+    }
+
+    private void clearValueCache() {
+        ConvertedValueCache cache = valueCache;
+        if (cache != null) {
+            cache.clear();
+        }
+        primitiveValues.clear();
+        tokens.clear();
+        templates.clear();
+        expandedValues.clear();
     }
 
     public void addConverter(Type type, MicroProfileTypedConverter<?> converter) {
         converters.put(type, converter);
+        clearValueCache();
     }
 
     public Map<Type, MicroProfileTypedConverter> getConverters() {
@@ -15,6 +15,10 @@
  */
 package be.atbash.config.configserver.config;
 
+import be.atbash.config.ConfigOptionalValue;
+import be.atbash.config.configserver.config.converters.DatePatterns;
+import be.atbash.config.exception.ConfigurationException;
+import be.atbash.config.configserver.metrics.ConfigServerMetrics;
 import be.atbash.config.source.AtbashConfigSource;
 import be.atbash.config.source.ConfigType;
 import be.atbash.util.StringUtils;
@@ -24,11 +28,17 @@ import org.eclipse.microprofile.config.ConfigProvider;
 import org.eclipse.microprofile.config.spi.ConfigSource;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  *
@@ -36,30 +46,347 @@ import java.util.List;
 @ApplicationScoped
 public class ConfigReader {
 
+    private static final Logger LOGGER = Logger.getLogger(ConfigReader.class.getName());
+
+    // The stage is chosen by the client, the number of remembered stages without files is limited.
+    private static final int MAX_STAGES_WITHOUT_FILES = 1000;
+
     @Inject
     private ResourceUtil resourceUtil;
 
+    @Inject
+    private ConfigServerMetrics metrics;
+
     //@ConfigProperty(name = "applications")  TODO This is not working
     private List<String> applications;
 
     //@ConfigProperty(name = "rootDirectory") TODO This is not working
     private String rootDirectory;
 
+    private int historySize;
+
+    private int valueCacheSize;
+
+    private boolean expandVariables;
+
+    private DatePatterns datePatterns;
+
+    private ConfigDirectoryWatcher directoryWatcher;
+
+    private final ConcurrentMap<SnapshotKey, ConfigSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    // Requested stages which have no configuration files, they are served by the snapshot without stage. Forgotten
+    // by the ConfigDirectoryWatcher when a file for the stage is created.
+    private final Set<SnapshotKey> stagesWithoutFiles = ConcurrentHashMap.newKeySet();
+
+    private final List<SnapshotListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Start from the current time so that versions keep increasing over restarts of the server.
+    private final AtomicLong versionSequence = new AtomicLong(System.currentTimeMillis());
+
+    public ConfigReader() {
+        // Created by CDI
+    }
+
+    /**
+     * Outside of CDI, like in tests and benchmarks. The configuration is read by {@link #init()} which must be called
+     * before the ConfigReader is used.
+     */
+    public ConfigReader(ResourceUtil resourceUtil, ConfigServerMetrics metrics) {
+        this.resourceUtil = resourceUtil;
+        this.metrics = metrics;
+    }
+
     @PostConstruct
     public void init() {
         applications = Arrays.asList(ConfigProvider.getConfig().getValue("applications", String[].class));
         rootDirectory = ConfigProvider.getConfig().getValue("rootDirectory", String.class);
+
+        Integer configuredHistorySize = ConfigOptionalValue.getValue("historySize", Integer.class);
+        historySize = configuredHistorySize == null ? 10 : configuredHistorySize;
+
+        Integer configuredValueCacheSize = ConfigOptionalValue.getValue("valueCacheSize", Integer.class);
+        valueCacheSize = configuredValueCacheSize == null ? 0 : configuredValueCacheSize;
+
+        Boolean configuredExpandVariables = ConfigOptionalValue.getValue("expandVariables", Boolean.class);
+        expandVariables = configuredExpandVariables != null && configuredExpandVariables;
+
+        String[] configuredDatePatterns = ConfigOptionalValue.getValue("datePatterns", String[].class);
+        try {
+            // Validated once, an invalid pattern would otherwise fail the creation of every snapshot.
+            datePatterns = configuredDatePatterns == null ? DatePatterns.DEFAULT : new DatePatterns(Arrays.asList(configuredDatePatterns));
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException(String.format("Parameter 'datePatterns' : %s", e.getMessage()));
+        }
+
+        Integer pollInterval = ConfigOptionalValue.getValue("pollInterval", Integer.class);
+        directoryWatcher = new ConfigDirectoryWatcher(this, rootDirectory, applications, pollInterval == null ? 5 : pollInterval);
+        directoryWatcher.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        directoryWatcher.stop();
     }
 
     public Config getConfig(String application, String stage) {
-        if (!applications.contains(application)) {
+        ConfigSnapshot snapshot = getSnapshot(application, stage);
+        return snapshot == null ? null : snapshot.getConfig();
+    }
+
+    /**
+     * Returns the cached configuration of the application and stage. Changes to the configuration files are picked up
+     * by the {@link ConfigDirectoryWatcher} which rebuilds the affected snapshots. A stage without configuration files
+     * has the same values as no stage and receives that snapshot.
+     */
+    public ConfigSnapshot getSnapshot(String application, String stage) {
+        return getSnapshot(new SnapshotKey(application, stage), true);
+    }
+
+    /**
+     * Is the snapshot the one which is returned for the application and stage of the key? Used to find out which
+     * clients are affected by a change, also the clients of a stage without configuration files are when the snapshot
+     * without stage is changed.
+     */
+    public boolean isServedBy(SnapshotKey key, ConfigSnapshot snapshot) {
+        if (key.equals(snapshot.getKey())) {
+            return true;
+        }
+        if (snapshot.getKey().getStage() != null || !key.getApplication().equals(snapshot.getKey().getApplication())) {
+            return false;
+        }
+        ConfigSnapshot served = getSnapshot(key, false);
+        return served != null && served.getVersion() == snapshot.getVersion();
+    }
+
+    private ConfigSnapshot getSnapshot(SnapshotKey key, boolean record) {
+        if (!applications.contains(key.getApplication())) {
             return null;
         }
-        DefaultConfigBuilder builder = new DefaultConfigBuilder();
+        ConfigSnapshot snapshot = snapshots.get(key);
+        if (snapshot != null) {
+            if (record) {
+                metrics.forKey(key).recordSnapshotHit();
+            }
+            return snapshot;
+        }
+        if (key.getStage() != null && isStageWithoutFiles(key)) {
+            // The stage is chosen by the client, only stages with their own files are kept so that the number of
+            // snapshots is limited by the files.
+            return getSnapshot(new SnapshotKey(key.getApplication(), null), record);
+        }
+        if (record) {
+            metrics.forKey(key).recordSnapshotMiss();
+        }
+        return snapshots.computeIfAbsent(key, k -> buildSnapshot(k, readFileState(k), null));
+    }
+
+    private boolean isStageWithoutFiles(SnapshotKey key) {
+        if (stagesWithoutFiles.contains(key)) {
+            return true;
+        }
+        if (hasStageFiles(key)) {
+            return false;
+        }
+        if (stagesWithoutFiles.size() < MAX_STAGES_WITHOUT_FILES) {
+            stagesWithoutFiles.add(key);
+            // A file created in the mean time, after the ConfigDirectoryWatcher looked at the remembered stages.
+            if (hasStageFiles(key)) {
+                stagesWithoutFiles.remove(key);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void addSnapshotListener(SnapshotListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeSnapshotListener(SnapshotListener listener) {
+        listeners.remove(listener);
+    }
+
+    void rebuildApplication(String application) {
+        for (SnapshotKey key : snapshots.keySet()) {
+            if (key.getApplication().equals(application)) {
+                rebuild(key);
+            }
+        }
+        for (SnapshotKey key : stagesWithoutFiles) {
+            if (key.getApplication().equals(application) && hasStageFiles(key)) {
+                stageFilesCreated(key);
+            }
+        }
+    }
+
+    void rebuildFiles(String application, Set<String> fileNames) {
+        for (SnapshotKey key : snapshots.keySet()) {
+            if (key.getApplication().equals(application) && usesAnyOf(key, fileNames)) {
+                rebuild(key);
+            }
+        }
+        for (SnapshotKey key : stagesWithoutFiles) {
+            if (key.getApplication().equals(application) && isStageFileOf(key, fileNames)) {
+                stageFilesCreated(key);
+            }
+        }
+    }
+
+    /**
+     * Used when the file system can't be watched, rebuilds the snapshots for which a configuration file is added,
+     * changed or removed.
+     */
+    void rebuildModified() {
+        for (SnapshotKey key : snapshots.keySet()) {
+            replaceSnapshot(key, true);
+        }
+        for (SnapshotKey key : stagesWithoutFiles) {
+            if (hasStageFiles(key)) {
+                stageFilesCreated(key);
+            }
+        }
+    }
+
+    /**
+     * The stage has now its own configuration files. Its clients received the snapshot without stage until now, they
+     * are notified of the change to the snapshot of the stage.
+     */
+    private void stageFilesCreated(SnapshotKey key) {
+        stagesWithoutFiles.remove(key);
+        ConfigSnapshot previous = snapshots.get(new SnapshotKey(key.getApplication(), null));
+        if (previous == null || !hasStageFiles(key)) {
+            // Nobody received the snapshot without stage, or the file is already removed again.
+            return;
+        }
+        ConfigSnapshot snapshot = snapshots.computeIfAbsent(key, k -> buildSnapshot(k, readFileState(k), null));
+        notifyListeners(key, previous, snapshot);
+    }
+
+    private void rebuild(SnapshotKey key) {
+        replaceSnapshot(key, false);
+    }
+
+    private void replaceSnapshot(SnapshotKey key, boolean onlyWhenModified) {
+        ConfigSnapshot[] previous = new ConfigSnapshot[1];
+        ConfigSnapshot snapshot = snapshots.computeIfPresent(key, (k, current) -> {
+            previous[0] = current;
+            Map<String, Long> fileState = readFileState(k);
+            if (onlyWhenModified && current.getFileState().equals(fileState)) {
+                return current;
+            }
+            return buildSnapshot(k, fileState, current);
+        });
+
+        if (snapshot != null && previous[0] != null && snapshot.getVersion() != previous[0].getVersion()) {
+            notifyListeners(key, previous[0], snapshot);
+        }
+    }
+
+    private void notifyListeners(SnapshotKey key, ConfigSnapshot previous, ConfigSnapshot snapshot) {
+        for (SnapshotListener listener : listeners) {
+            try {
+                listener.snapshotChanged(previous, snapshot);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, String.format("Notification of the change of '%s' failed", key), e);
+            }
+        }
+    }
 
-        List<ConfigSource> sources = getConfigSources(application, stage);
+    private boolean usesAnyOf(SnapshotKey key, Set<String> fileNames) {
+        for (String fileName : fileNames) {
+            if (getConfigLocations(key).contains(rootDirectory + "/" + key.getApplication() + "/" + fileName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isStageFileOf(SnapshotKey key, Set<String> fileNames) {
+        for (ConfigType configType : ConfigType.values()) {
+            if (fileNames.contains(key.getApplication() + "-" + key.getStage() + configType.getSuffix())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ConfigSnapshot buildSnapshot(SnapshotKey key, Map<String, Long> fileState, ConfigSnapshot current) {
+        long start = System.nanoTime();
+        try {
+            return createSnapshot(key, fileState, current);
+        } finally {
+            metrics.forKey(key).recordBuild(System.nanoTime() - start);
+        }
+    }
+
+    private ConfigSnapshot createSnapshot(SnapshotKey key, Map<String, Long> fileState, ConfigSnapshot current) {
+        // A snapshot is rebuilt when the files change, so the values of its ConfigSources never change.
+        DefaultConfigBuilder builder = new DefaultConfigBuilder().withImmutableSources().withValueCache(valueCacheSize)
+                .withDatePatterns(datePatterns);
+
+        List<ConfigSource> sources = getConfigSources(key.getApplication(), key.getStage());
         builder.withSources(sources.toArray(new ConfigSource[0]));
-        return builder.build();
+        ConfigImpl config = (ConfigImpl) builder.build();
+
+        // Sorted so that the encoded payload, and thus the ETag, is the same for the same values.
+        NavigableMap<String, String> values = new TreeMap<>();
+        config.getPropertyNames().forEach(name -> values.put(name, defineValue(key, config, name)));
+
+        if (current != null && current.getValues().equals(values)) {
+            // A save without real changes, clients don't need to be bothered with a new version.
+            return current.withFileState(fileState);
+        }
+        Map<Long, Map<String, String>> history = current == null ? new HashMap<>() : current.defineHistory(historySize);
+        return new ConfigSnapshot(key, versionSequence.incrementAndGet(), config, values, fileState, history);
+    }
+
+    private String defineValue(SnapshotKey key, ConfigImpl config, String name) {
+        if (!expandVariables) {
+            return config.getValue(name, String.class);
+        }
+        try {
+            // Expanded once for each version of the configuration, instead of by each client.
+            return config.getExpandedValue(name);
+        } catch (NoSuchElementException | IllegalArgumentException e) {
+            LOGGER.warning(String.format("Variables in value of '%s' for '%s' can't be expanded, raw value is used : %s", name, key, e.getMessage()));
+            return config.getValue(name);
+        }
+    }
+
+    private Map<String, Long> readFileState(SnapshotKey key) {
+        Map<String, Long> result = new HashMap<>();
+        for (String configLocation : getConfigLocations(key)) {
+            File file = new File(configLocation);
+            result.put(configLocation, file.exists() ? file.lastModified() : -1L);
+        }
+        return result;
+    }
+
+    private List<String> getConfigLocations(SnapshotKey key) {
+        List<String> result = new ArrayList<>();
+        for (ConfigType configType : ConfigType.values()) {
+            result.add(rootDirectory + "/" + key.getApplication() + "/" + key.getApplication() + configType.getSuffix());
+        }
+        if (key.getStage() != null) {
+            for (ConfigType configType : ConfigType.values()) {
+                result.add(getStageConfigLocation(key.getApplication(), key.getStage(), configType));
+            }
+        }
+        return result;
+    }
+
+    private boolean hasStageFiles(SnapshotKey key) {
+        for (ConfigType configType : ConfigType.values()) {
+            if (resourceUtil.resourceExists(getStageConfigLocation(key.getApplication(), key.getStage(), configType))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String getStageConfigLocation(String application, String stage, ConfigType configType) {
+        return rootDirectory + "/" + application + "/" + application + "-" + stage + configType.getSuffix();
     }
 
     public List<ConfigSource> getConfigSources(String application, String stage) {
@@ -77,7 +404,7 @@ public class ConfigReader {
         if (StringUtils.hasText(stage)) {
             for (ConfigType configType : ConfigType.values()) {
 
-                String configLocation = rootDirectory + "/" + application + "/" + application + "-" + stage + configType.getSuffix();
+                String configLocation = getStageConfigLocation(application, stage, configType);
                 if (resourceUtil.resourceExists(configLocation)) {
                     result.add(new AtbashConfigSource(configType, configLocation, 200));
                 }
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config;
+
+import org.eclipse.microprofile.config.Config;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Immutable, fully built configuration of an application (and optional stage) together with the state of the
+ * configuration files it is built from.
+ */
+public final class ConfigSnapshot {
+
+    private static final int MAX_PREFIX_PAYLOADS = 64;
+
+    private final SnapshotKey key;
+    private final long version;
+    private final Config config;
+    private final NavigableMap<String, String> values;
+    private final Map<String, Long> fileState;
+    private final Map<Long, Map<String, String>> history;
+
+    private volatile EncodedPayload payload;
+    private final ConcurrentMap<Long, EncodedPayload> deltas = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, EncodedPayload> prefixPayloads = new ConcurrentHashMap<>();
+
+    ConfigSnapshot(SnapshotKey key, long version, Config config, NavigableMap<String, String> values, Map<String, Long> fileState,
+                   Map<Long, Map<String, String>> history) {
+        this.key = key;
+        this.version = version;
+        this.config = config;
+        this.values = Collections.unmodifiableNavigableMap(values);
+        this.fileState = Collections.unmodifiableMap(fileState);
+        this.history = Collections.unmodifiableMap(history);
+    }
+
+    public SnapshotKey getKey() {
+        return key;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    /**
+     * All configuration values, sorted on key.
+     */
+    public NavigableMap<String, String> getValues() {
+        return values;
+    }
+
+    /**
+     * The configuration values with a key starting with the prefix, a range of the sorted values.
+     */
+    public SortedMap<String, String> getValues(String prefix) {
+        if (prefix.isEmpty()) {
+            return values;
+        }
+        char last = prefix.charAt(prefix.length() - 1);
+        if (last == Character.MAX_VALUE) {
+            return values.tailMap(prefix, true);
+        }
+        // First String which is larger than all Strings starting with the prefix.
+        String upperBound = prefix.substring(0, prefix.length() - 1) + (char) (last + 1);
+        return values.subMap(prefix, true, upperBound, false);
+    }
+
+    /**
+     * Returns the encoded values. The encoding is only performed the first time, the result is kept for all the other
+     * requests for this snapshot.
+     */
+    public EncodedPayload getPayload(Function<Map<String, String>, String> encoder) {
+        EncodedPayload result = payload;
+        if (result == null) {
+            synchronized (this) {
+                result = payload;
+                if (result == null) {
+                    result = new EncodedPayload(encoder.apply(values));
+                    payload = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the encoded values with a key starting with the prefix. The result is kept for a limited number of
+     * prefixes.
+     */
+    public EncodedPayload getPayload(String prefix, Function<Map<String, String>, String> encoder) {
+        EncodedPayload result = prefixPayloads.get(prefix);
+        if (result == null) {
+            result = new EncodedPayload(encoder.apply(getValues(prefix)));
+            if (prefixPayloads.size() < MAX_PREFIX_PAYLOADS) {
+                prefixPayloads.putIfAbsent(prefix, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the encoded differences between the values of an older version and the current values, or null when the
+     * older version is not kept in the history of this snapshot. The encoding is performed once for each older version.
+     */
+    public EncodedPayload getDelta(long fromVersion, Function<ConfigDelta, String> encoder) {
+        Map<String, String> previousValues = history.get(fromVersion);
+        if (previousValues == null) {
+            return null;
+        }
+        return deltas.computeIfAbsent(fromVersion, v -> new EncodedPayload(encoder.apply(ConfigDelta.between(previousValues, values))));
+    }
+
+    /**
+     * History for the snapshot which replaces this one; the values of this version followed by at most historySize - 1
+     * previous versions.
+     */
+    Map<Long, Map<String, String>> defineHistory(int historySize) {
+        Map<Long, Map<String, String>> result = new LinkedHashMap<>();
+        if (historySize <= 0) {
+            return result;
+        }
+        result.put(version, values);
+        for (Map.Entry<Long, Map<String, String>> entry : history.entrySet()) {
+            if (result.size() >= historySize) {
+                break;
+            }
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Last modification time of each candidate configuration file at the moment the snapshot was built, -1 when the
+     * file did not exist.
+     */
+    Map<String, Long> getFileState() {
+        return fileState;
+    }
+
+    ConfigSnapshot withFileState(Map<String, Long> newFileState) {
+        ConfigSnapshot result = new ConfigSnapshot(key, version, config, values, newFileState, history);
+        result.payload = payload;
+        return result;
+    }
+}
@@ -100,42 +100,76 @@ public class ConfigValueImpl<T> {
     //X @Override
     public List<T> getValueList() {
         String rawList = (String) getValue(false);
-        List<T> values = new ArrayList<>();
-        StringBuilder sb = new StringBuilder(64);
-        for (int i = 0; i < rawList.length(); i++) {
-            char c = rawList.charAt(i);
-            if ('\\' == c) {
-                if (i == rawList.length()) {
-                    throw new IllegalStateException("incorrect escaping of key " + keyOriginal + " value: " + rawList);
-                }
-                char nextChar = rawList.charAt(i + 1);
-                if (nextChar == '\\') {
-                    sb.append('\\');
-                } else if (nextChar == ',') {
-                    sb.append(',');
-                }
-                i++;
-            } else if (',' == c) {
-                addListValue(values, sb);
-            } else {
-                sb.append(c);
+        List<String> tokens = config.getTokens(rawList);
+        List<T> values = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            String val = token.trim();
+            if (!val.isEmpty()) {
+                values.add(convert(val));
             }
         }
-        addListValue(values, sb);
-
         return values;
     }
 
-    private void addListValue(List<T> values, StringBuilder sb) {
-        String val = sb.toString().trim();
-        if (!val.isEmpty()) {
-            values.add(convert(val));
+    public T getValue() {
+        return getValue(true);
+    }
+
+    /**
+     * Value as an int without boxing. Only when variables are evaluated, the resolved value is parsed each time. With
+     * {@link #cacheFor(long, TimeUnit)} or {@link #onChange(ConfigChanged)}, the value is retrieved like
+     * {@link #getValue()} so that the cache and the change listener are applied.
+     */
+    public int getInt() {
+        if (isTracked()) {
+            Object value = getRequiredTrackedValue();
+            return value instanceof Integer ? (Integer) value : config.convertInt(value.toString());
         }
-        sb.setLength(0);
+        return evaluateVariables ? config.convertInt(getRequiredValue()) : config.getInt(keyOriginal);
     }
 
-    public T getValue() {
-        return getValue(true);
+    public long getLong() {
+        if (isTracked()) {
+            Object value = getRequiredTrackedValue();
+            return value instanceof Long ? (Long) value : config.convertLong(value.toString());
+        }
+        return evaluateVariables ? config.convertLong(getRequiredValue()) : config.getLong(keyOriginal);
+    }
+
+    public double getDouble() {
+        if (isTracked()) {
+            Object value = getRequiredTrackedValue();
+            return value instanceof Double ? (Double) value : config.convertDouble(value.toString());
+        }
+        return evaluateVariables ? config.convertDouble(getRequiredValue()) : config.getDouble(keyOriginal);
+    }
+
+    public boolean getBoolean() {
+        if (isTracked()) {
+            Object value = getRequiredTrackedValue();
+            return value instanceof Boolean ? (Boolean) value : config.convertBoolean(value.toString());
+        }
+        return evaluateVariables ? config.convertBoolean(getRequiredValue()) : config.getBoolean(keyOriginal);
+    }
+
+    private boolean isTracked() {
+        return cacheTimeMs > 0 || valueChangeListener != null;
+    }
+
+    private Object getRequiredTrackedValue() {
+        T value = getValue();
+        if (value == null || "".equals(value)) {
+            throw new NoSuchElementException("No config value present for key " + keyOriginal);
+        }
+        return value;
+    }
+
+    private String getRequiredValue() {
+        String value = resolveStringValue();
+        if (value == null || value.isEmpty()) {
+            throw new NoSuchElementException("No config value present for key " + keyOriginal);
+        }
+        return value;
     }
 
     private T getValue(boolean convert) {
@@ -166,27 +200,7 @@ public class ConfigValueImpl<T> {
     private String resolveStringValue() {
         //X TODO implement lookupChain
 
-        String value = config.getValue(keyOriginal);
-        if (evaluateVariables) {
-            // recursively resolve any ${varName} in the value
-            int startVar = 0;
-            while ((startVar = value.indexOf("${", startVar)) >= 0) {
-                int endVar = value.indexOf("}", startVar);
-                if (endVar <= 0) {
-                    break;
-                }
-                String varName = value.substring(startVar + 2, endVar);
-                if (varName.isEmpty()) {
-                    break;
-                }
-                String variableValue = config.access(varName).evaluateVariables(true).get();
-                if (variableValue != null) {
-                    value = value.replace("${" + varName + "}", variableValue);
-                }
-                startVar++;
-            }
-        }
-        return value;
+        return evaluateVariables ? config.getExpandedValue(keyOriginal) : config.getValue(keyOriginal);
     }
 
     //X @Override
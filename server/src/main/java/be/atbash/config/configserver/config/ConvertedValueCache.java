@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Converted configuration values by target type and key. Bounded, once the maximum number of values is reached new
+ * values are no longer added.
+ */
+final class ConvertedValueCache {
+
+    private final int maximumSize;
+    private final AtomicInteger size = new AtomicInteger();
+
+    // By type first so that a lookup doesn't need to create a combined key.
+    private final ConcurrentMap<Class<?>, ConcurrentMap<String, Object>> values = new ConcurrentHashMap<>();
+
+    ConvertedValueCache(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    <T> T get(String key, Class<T> type) {
+        ConcurrentMap<String, Object> valuesOfType = values.get(type);
+        return valuesOfType == null ? null : (T) valuesOfType.get(key);
+    }
+
+    void put(String key, Class<?> type, Object value) {
+        if (size.get() >= maximumSize) {
+            return;
+        }
+        ConcurrentMap<String, Object> valuesOfType = values.computeIfAbsent(type, t -> new ConcurrentHashMap<>());
+        if (valuesOfType.putIfAbsent(key, value) == null) {
+            size.incrementAndGet();
+        }
+    }
+
+    void clear() {
+        values.clear();
+        size.set(0);
+    }
+}
@@ -27,7 +27,11 @@ import javax.enterprise.inject.Vetoed;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +48,8 @@ public class DefaultConfigBuilder implements ConfigBuilder {
     private ClassLoader forClassLoader;
     private final List<ConfigSource> sources = new ArrayList<>();
     private final Map<Type, MicroProfileTypedConverter<?>> registeredConverters = new HashMap<>();
+    private boolean immutableSources;
+    private int valueCacheSize;
 
     public DefaultConfigBuilder() {
         this.registerDefaultConverters();
@@ -72,6 +78,45 @@ public class DefaultConfigBuilder implements ConfigBuilder {
         return this;
     }
 
+    /**
+     * Indicates that the values of the ConfigSources never change, the built Config merges all values into one index.
+     * See {@link ConfigImpl#freeze()}.
+     */
+    public DefaultConfigBuilder withImmutableSources() {
+        this.immutableSources = true;
+        return this;
+    }
+
+    /**
+     * Keeps at most maximumSize converted values in the built Config, only used together with
+     * {@link #withImmutableSources()}. See {@link ConfigImpl#enableValueCache(int)}.
+     */
+    public DefaultConfigBuilder withValueCache(int maximumSize) {
+        this.valueCacheSize = maximumSize;
+        return this;
+    }
+
+    /**
+     * Patterns (see {@link java.time.format.DateTimeFormatter}) tried, after ISO-8601, for Date and LocalDate values.
+     */
+    public DefaultConfigBuilder withDatePatterns(List<String> patterns) {
+        return withDatePatterns(new DatePatterns(patterns));
+    }
+
+    /**
+     * Patterns which are already validated, shared by several Configs.
+     */
+    public DefaultConfigBuilder withDatePatterns(DatePatterns datePatterns) {
+        // Only replaces the default converters, not those registered by the developer.
+        if (registeredConverters.get(Date.class).getDelegate() instanceof DateConverter) {
+            registeredConverters.put(Date.class, new MicroProfileTypedConverter<>(new DateConverter(datePatterns)));
+        }
+        if (registeredConverters.get(LocalDate.class).getDelegate() instanceof LocalDateConverter) {
+            registeredConverters.put(LocalDate.class, new MicroProfileTypedConverter<>(new LocalDateConverter(datePatterns)));
+        }
+        return this;
+    }
+
     @Override
     public ConfigBuilder withConverters(Converter<?>... converters) {
         for (Converter<?> converter : converters) {
@@ -120,6 +165,11 @@ public class DefaultConfigBuilder implements ConfigBuilder {
             config.addConverter(entry.getKey(), entry.getValue());
         }
 
+        if (immutableSources) {
+            config.freeze();
+        }
+        config.enableValueCache(valueCacheSize);
+
         return config;
     }
 
@@ -138,6 +188,11 @@ public class DefaultConfigBuilder implements ConfigBuilder {
 
         registeredConverters.put(URL.class, new MicroProfileTypedConverter<>(URLConverter.INSTANCE));
         registeredConverters.put(Class.class, new MicroProfileTypedConverter<>(ClassConverter.INSTANCE));
+
+        registeredConverters.put(Date.class, new MicroProfileTypedConverter<>(DateConverter.INSTANCE));
+        registeredConverters.put(LocalDate.class, new MicroProfileTypedConverter<>(LocalDateConverter.INSTANCE));
+        registeredConverters.put(Instant.class, new MicroProfileTypedConverter<>(InstantConverter.INSTANCE));
+        registeredConverters.put(Duration.class, new MicroProfileTypedConverter<>(DurationConverter.INSTANCE));
     }
 
     private Type getTypeOfConverter(Class clazz) {
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Encoded configuration values as they are sent to the client, together with the hash of the content which is used as
+ * ETag.
+ */
+public final class EncodedPayload {
+
+    private final byte[] content;
+    private final String hash;
+
+    public EncodedPayload(String encoded) {
+        content = encoded.getBytes(StandardCharsets.UTF_8);
+        hash = defineHash(content);
+    }
+
+    /**
+     * The encoded content. The array is shared between all requests and must not be modified.
+     */
+    public byte[] getContent() {
+        return content;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    private static String defineHash(byte[] content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is required to be supported by every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Parsed primitive configuration values by key. A lookup of a value which is already parsed doesn't allocate.
+ */
+final class PrimitiveValueCache {
+
+    private final ConcurrentMap<String, IntValue> intValues = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongValue> longValues = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DoubleValue> doubleValues = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, BooleanValue> booleanValues = new ConcurrentHashMap<>();
+
+    IntValue getInt(String key) {
+        return intValues.get(key);
+    }
+
+    void putInt(String key, int value) {
+        intValues.putIfAbsent(key, new IntValue(value));
+    }
+
+    LongValue getLong(String key) {
+        return longValues.get(key);
+    }
+
+    void putLong(String key, long value) {
+        longValues.putIfAbsent(key, new LongValue(value));
+    }
+
+    DoubleValue getDouble(String key) {
+        return doubleValues.get(key);
+    }
+
+    void putDouble(String key, double value) {
+        doubleValues.putIfAbsent(key, new DoubleValue(value));
+    }
+
+    BooleanValue getBoolean(String key) {
+        return booleanValues.get(key);
+    }
+
+    void putBoolean(String key, boolean value) {
+        booleanValues.putIfAbsent(key, new BooleanValue(value));
+    }
+
+    void clear() {
+        intValues.clear();
+        longValues.clear();
+        doubleValues.clear();
+        booleanValues.clear();
+    }
+
+    static final class IntValue {
+        final int value;
+
+        IntValue(int value) {
+            this.value = value;
+        }
+    }
+
+    static final class LongValue {
+        final long value;
+
+        LongValue(long value) {
+            this.value = value;
+        }
+    }
+
+    static final class DoubleValue {
+        final double value;
+
+        DoubleValue(double value) {
+            this.value = value;
+        }
+    }
+
+    static final class BooleanValue {
+        final boolean value;
+
+        BooleanValue(boolean value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config;
+
+import be.atbash.util.StringUtils;
+
+/**
+ * Identifies the configuration of an application for a certain (optional) stage.
+ */
+public final class SnapshotKey {
+
+    private final String application;
+    private final String stage;
+
+    public SnapshotKey(String application, String stage) {
+        this.application = application;
+        this.stage = StringUtils.hasText(stage) ? stage : null;
+    }
+
+    public String getApplication() {
+        return application;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SnapshotKey)) {
+            return false;
+        }
+
+        SnapshotKey that = (SnapshotKey) o;
+
+        if (!application.equals(that.application)) {
+            return false;
+        }
+        return stage != null ? stage.equals(that.stage) : that.stage == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = application.hashCode();
+        result = 31 * result + (stage != null ? stage.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return stage == null ? application : application + "-" + stage;
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config;
+
+/**
+ * Notified by the {@link ConfigReader} when the configuration values of an application (and stage) are changed.
+ */
+public interface SnapshotListener {
+
+    /**
+     * The previous snapshot is the one without stage when a stage receives its first configuration file. Use
+     * {@link ConfigReader#isServedBy(SnapshotKey, ConfigSnapshot)} to find out which clients are affected.
+     */
+    void snapshotChanged(ConfigSnapshot previous, ConfigSnapshot current);
+}
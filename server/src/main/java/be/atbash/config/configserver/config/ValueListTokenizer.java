@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits a configuration value into the elements of a list or array. The elements are separated by a comma, a comma
+ * which is part of an element is escaped as {@code \,} and a backslash before a comma as {@code \\}. Any other
+ * backslash is kept as is. Empty elements are skipped.
+ */
+public final class ValueListTokenizer {
+
+    private static final char SEPARATOR = ',';
+    private static final char ESCAPE = '\\';
+
+    private ValueListTokenizer() {
+    }
+
+    public static List<String> tokenize(String value) {
+        if (value == null || value.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (value.indexOf(ESCAPE) < 0) {
+            return tokenizeUnescaped(value);
+        }
+
+        List<String> result = new ArrayList<>();
+        StringBuilder token = new StringBuilder(value.length());
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == ESCAPE && i + 1 < length && (value.charAt(i + 1) == SEPARATOR || value.charAt(i + 1) == ESCAPE)) {
+                token.append(value.charAt(++i));
+            } else if (c == SEPARATOR) {
+                addToken(result, token.toString());
+                token.setLength(0);
+            } else {
+                token.append(c);
+            }
+        }
+        addToken(result, token.toString());
+        return result;
+    }
+
+    private static List<String> tokenizeUnescaped(String value) {
+        // Common case, elements are substrings of the value.
+        List<String> result = new ArrayList<>();
+        int start = 0;
+        int separator;
+        while ((separator = value.indexOf(SEPARATOR, start)) >= 0) {
+            addToken(result, value.substring(start, separator));
+            start = separator + 1;
+        }
+        addToken(result, value.substring(start));
+        return result;
+    }
+
+    private static void addToken(List<String> result, String token) {
+        if (!token.isEmpty()) {
+            result.add(token);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Configuration value parsed into literal parts and <code>${name}</code> variables, so that it can be expanded
+ * without searching the value again.
+ */
+final class VariableTemplate {
+
+    private static final String VARIABLE_START = "${";
+    private static final char VARIABLE_END = '}';
+
+    // Literal parts are at the even positions, variable names at the odd positions.
+    private final String[] parts;
+
+    private VariableTemplate(String[] parts) {
+        this.parts = parts;
+    }
+
+    static VariableTemplate compile(String value) {
+        List<String> parts = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int position = 0;
+        int startVar;
+        while ((startVar = value.indexOf(VARIABLE_START, position)) >= 0) {
+            int endVar = value.indexOf(VARIABLE_END, startVar);
+            if (endVar < 0 || endVar == startVar + VARIABLE_START.length()) {
+                // Not terminated or no name, the remainder is kept as is.
+                break;
+            }
+            literal.append(value, position, startVar);
+            parts.add(literal.toString());
+            literal.setLength(0);
+            parts.add(value.substring(startVar + VARIABLE_START.length(), endVar));
+            position = endVar + 1;
+        }
+        literal.append(value, position, value.length());
+        parts.add(literal.toString());
+        return new VariableTemplate(parts.toArray(new String[0]));
+    }
+
+    boolean hasVariables() {
+        return parts.length > 1;
+    }
+
+    /**
+     * Value with the variables replaced by the result of the resolver.
+     */
+    String expand(Function<String, String> resolver) {
+        if (!hasVariables()) {
+            return parts[0];
+        }
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            result.append(i % 2 == 0 ? parts[i] : resolver.apply(parts[i]));
+        }
+        return result.toString();
+    }
+}
@@ -25,23 +25,28 @@ import javax.enterprise.inject.Vetoed;
  */
 @Priority(1)
 @Vetoed
-public class BooleanConverter implements Converter<Boolean> {
+public class BooleanConverter implements Converter<Boolean>, PrimitiveBooleanConverter {
 
     public static final BooleanConverter INSTANCE = new BooleanConverter();
 
     @Override
     public Boolean convert(String value) {
         if (value != null) {
-            return "TRUE".equalsIgnoreCase(value)
-                    || "1".equalsIgnoreCase(value)
-                    || "YES".equalsIgnoreCase(value)
-                    || "Y".equalsIgnoreCase(value)
-                    || "ON".equalsIgnoreCase(value)
-                    || "JA".equalsIgnoreCase(value)
-                    || "J".equalsIgnoreCase(value)
-                    || "OUI".equalsIgnoreCase(value);
+            return convertBoolean(value);
         }
 
         return null;
     }
+
+    @Override
+    public boolean convertBoolean(String value) {
+        return "TRUE".equalsIgnoreCase(value)
+                || "1".equalsIgnoreCase(value)
+                || "YES".equalsIgnoreCase(value)
+                || "Y".equalsIgnoreCase(value)
+                || "ON".equalsIgnoreCase(value)
+                || "JA".equalsIgnoreCase(value)
+                || "J".equalsIgnoreCase(value)
+                || "OUI".equalsIgnoreCase(value);
+    }
 }
@@ -19,27 +19,34 @@ import org.eclipse.microprofile.config.spi.Converter;
 
 import javax.annotation.Priority;
 import javax.enterprise.inject.Vetoed;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.ZoneId;
 import java.util.Date;
 
 /**
+ * Date from an ISO-8601 date-time (2019-03-21T10:15:30Z, 2019-03-21T10:15:30+01:00 or 2019-03-21T10:15:30 in the
+ * default time zone) or from a date (and time), see {@link DatePatterns}, in the default time zone.
+ *
  * @author <a href="mailto:struberg@apache.org">Mark Struberg</a>
  */
 @Priority(1)
 @Vetoed
 public class DateConverter implements Converter<Date> {
 
-    public static final DateConverter INSTANCE = new DateConverter();
+    public static final DateConverter INSTANCE = new DateConverter(DatePatterns.DEFAULT);
+
+    private final DatePatterns datePatterns;
+
+    public DateConverter(DatePatterns datePatterns) {
+        this.datePatterns = datePatterns;
+    }
 
     @Override
     public Date convert(String value) {
         if (value != null) {
-            try {
-                return SimpleDateFormat.getDateInstance().parse(value);
-            } catch (ParseException pe) {
-                throw new IllegalArgumentException(pe);
+            if (DatePatterns.isIsoDateTime(value)) {
+                return Date.from(DatePatterns.parseIsoDateTime(value));
             }
+            return Date.from(datePatterns.parseLocalDateTime(value).atZone(ZoneId.systemDefault()).toInstant());
         }
         return null;
     }
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config.converters;
+
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.FormatStyle;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Formats for parsing a date, shared by the date converters. The formatters are created once and are immutable, so
+ * parsing is thread safe and doesn't create a formatter. A value is tried as ISO-8601 date (yyyy-MM-dd) first, then
+ * with the configured patterns (which can contain a time) and finally in the medium format of the default locale.
+ */
+public final class DatePatterns {
+
+    public static final DatePatterns DEFAULT = new DatePatterns(Collections.<String>emptyList());
+
+    private final List<DateTimeFormatter> formatters;
+
+    public DatePatterns(List<String> patterns) {
+        List<DateTimeFormatter> result = new ArrayList<>();
+        for (String pattern : patterns) {
+            try {
+                result.add(DateTimeFormatter.ofPattern(pattern));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(String.format("Invalid date pattern '%s' : %s", pattern, e.getMessage()), e);
+            }
+        }
+        result.add(DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM));
+        formatters = Collections.unmodifiableList(result);
+    }
+
+    public LocalDate parseLocalDate(String value) {
+        if (isIsoDate(value)) {
+            try {
+                return LocalDate.parse(value, DateTimeFormatter.ISO_LOCAL_DATE);
+            } catch (DateTimeParseException e) {
+                // Could still match one of the patterns.
+            }
+        }
+        for (DateTimeFormatter formatter : formatters) {
+            try {
+                return LocalDate.parse(value, formatter);
+            } catch (DateTimeParseException e) {
+                // Try the next one
+            }
+        }
+        throw new IllegalArgumentException(String.format("Invalid date '%s'", value));
+    }
+
+    /**
+     * Date and time of the value, the start of the day when the value only contains a date.
+     */
+    public LocalDateTime parseLocalDateTime(String value) {
+        if (isIsoDate(value)) {
+            try {
+                return LocalDate.parse(value, DateTimeFormatter.ISO_LOCAL_DATE).atStartOfDay();
+            } catch (DateTimeParseException e) {
+                // Could still match one of the patterns.
+            }
+        }
+        for (DateTimeFormatter formatter : formatters) {
+            try {
+                TemporalAccessor parsed = formatter.parseBest(value, LocalDateTime::from, LocalDate::from);
+                return parsed instanceof LocalDateTime ? (LocalDateTime) parsed : ((LocalDate) parsed).atStartOfDay();
+            } catch (DateTimeParseException e) {
+                // Try the next one
+            }
+        }
+        throw new IllegalArgumentException(String.format("Invalid date '%s'", value));
+    }
+
+    /**
+     * Instant of an ISO-8601 date-time, in the default time zone when the value has no offset
+     * (2019-03-21T10:15:30).
+     */
+    static Instant parseIsoDateTime(String value) {
+        try {
+            TemporalAccessor parsed = DateTimeFormatter.ISO_DATE_TIME.parseBest(value, OffsetDateTime::from, LocalDateTime::from);
+            if (parsed instanceof OffsetDateTime) {
+                return ((OffsetDateTime) parsed).toInstant();
+            }
+            return ((LocalDateTime) parsed).atZone(ZoneId.systemDefault()).toInstant();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(String.format("Invalid date '%s'", value), e);
+        }
+    }
+
+    private static boolean isIsoDate(String value) {
+        return value.length() == 10 && value.charAt(4) == '-' && value.charAt(7) == '-';
+    }
+
+    /**
+     * Does the value look like an ISO-8601 date-time (yyyy-MM-ddTHH:mm...)?
+     */
+    static boolean isIsoDateTime(String value) {
+        return value.length() > 10 && value.charAt(4) == '-' && value.charAt(7) == '-' && value.charAt(10) == 'T';
+    }
+}
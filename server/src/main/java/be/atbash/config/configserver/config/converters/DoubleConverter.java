@@ -25,7 +25,7 @@ import javax.enterprise.inject.Vetoed;
  */
 @Priority(1)
 @Vetoed
-public class DoubleConverter implements Converter<Double> {
+public class DoubleConverter implements Converter<Double>, PrimitiveDoubleConverter {
 
     public static final DoubleConverter INSTANCE = new DoubleConverter();
 
@@ -33,4 +33,9 @@ public class DoubleConverter implements Converter<Double> {
     public Double convert(String value) {
         return value != null ? Double.valueOf(value) : null;
     }
+
+    @Override
+    public double convertDouble(String value) {
+        return Double.parseDouble(value);
+    }
 }
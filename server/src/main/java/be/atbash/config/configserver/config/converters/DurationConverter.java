@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config.converters;
+
+import org.eclipse.microprofile.config.spi.Converter;
+
+import javax.annotation.Priority;
+import javax.enterprise.inject.Vetoed;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Duration in the ISO-8601 format (PT15M) or as a number followed by a unit; ms, s, m, h or d (15m).
+ */
+@Priority(1)
+@Vetoed
+public class DurationConverter implements Converter<Duration> {
+
+    public static final DurationConverter INSTANCE = new DurationConverter();
+
+    @Override
+    public Duration convert(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            char first = value.isEmpty() ? ' ' : value.charAt(0);
+            if (first == 'P' || first == 'p' || first == '-' || first == '+') {
+                return Duration.parse(value);
+            }
+            return parseWithUnit(value);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Invalid duration '%s'", value), e);
+        }
+    }
+
+    private static Duration parseWithUnit(String value) {
+        int unitStart = 0;
+        while (unitStart < value.length() && Character.isDigit(value.charAt(unitStart))) {
+            unitStart++;
+        }
+        long amount = Long.parseLong(value.substring(0, unitStart));
+        switch (value.substring(unitStart).trim()) {
+            case "ms":
+                return Duration.ofMillis(amount);
+            case "s":
+                return Duration.ofSeconds(amount);
+            case "m":
+                return Duration.ofMinutes(amount);
+            case "h":
+                return Duration.ofHours(amount);
+            case "d":
+                return Duration.ofDays(amount);
+            default:
+                throw new IllegalArgumentException(String.format("Invalid duration '%s', unknown unit", value));
+        }
+    }
+}
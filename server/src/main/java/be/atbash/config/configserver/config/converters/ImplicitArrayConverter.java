@@ -29,11 +29,71 @@ public class ImplicitArrayConverter {
 
     public Object convert(String value, Class<?> asType) {
         Class<?> elementType = asType.getComponentType();
+        if (elementType == String.class && isStringConverter()) {
+            return config.getTokens(value).toArray(new String[0]);
+        }
+        if (elementType == int.class) {
+            return convertIntArray(value);
+        }
+        if (elementType == long.class) {
+            return convertLongArray(value);
+        }
+        if (elementType == double.class) {
+            return convertDoubleArray(value);
+        }
+        if (elementType == boolean.class) {
+            return convertBooleanArray(value);
+        }
+
         List<?> elements = config.convertList(value, elementType);
+        if (!elementType.isPrimitive()) {
+            return elements.toArray((Object[]) Array.newInstance(elementType, elements.size()));
+        }
         Object arrayInst = Array.newInstance(elementType, elements.size());
         for (int i = 0; i < elements.size(); i++) {
             Array.set(arrayInst, i, elements.get(i));
         }
         return arrayInst;
     }
+
+    private boolean isStringConverter() {
+        MicroProfileTypedConverter<?> converter = config.getConverters().get(String.class);
+        return converter == null || converter.getDelegate() instanceof StringConverter;
+    }
+
+    private int[] convertIntArray(String value) {
+        List<String> tokens = config.getTokens(value);
+        int[] result = new int[tokens.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = config.convertInt(tokens.get(i));
+        }
+        return result;
+    }
+
+    private long[] convertLongArray(String value) {
+        List<String> tokens = config.getTokens(value);
+        long[] result = new long[tokens.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = config.convertLong(tokens.get(i));
+        }
+        return result;
+    }
+
+    private double[] convertDoubleArray(String value) {
+        List<String> tokens = config.getTokens(value);
+        double[] result = new double[tokens.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = config.convertDouble(tokens.get(i));
+        }
+        return result;
+    }
+
+    private boolean[] convertBooleanArray(String value) {
+        List<String> tokens = config.getTokens(value);
+        boolean[] result = new boolean[tokens.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = config.convertBoolean(tokens.get(i));
+        }
+        return result;
+    }
 }
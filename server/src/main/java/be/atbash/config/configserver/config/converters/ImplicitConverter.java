@@ -17,16 +17,45 @@ package be.atbash.config.configserver.config.converters;
 
 import org.eclipse.microprofile.config.spi.Converter;
 
+import java.lang.invoke.*;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 
 /**
  * A Converter factory + impl for 'common sense converters'
  */
 public abstract class ImplicitConverter {
 
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    // Marks the classes for which no implicit converter can be created.
+    private static final MicroProfileTypedConverter<?> NO_CONVERTER = new MicroProfileTypedConverter<>(StringConverter.INSTANCE, 0);
+
+    private static final ConcurrentMap<Class<?>, MicroProfileTypedConverter<?>> CONVERTERS = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the implicit converter for the class, or null when the class has no suitable constructor or static
+     * method. The lookup by reflection is only performed once for each class.
+     */
     public static <T> MicroProfileTypedConverter<T> getImplicitConverter(Class<T> clazz) {
+        MicroProfileTypedConverter<?> result = CONVERTERS.get(clazz);
+        if (result == null) {
+            result = CONVERTERS.computeIfAbsent(clazz, ImplicitConverter::findImplicitConverter);
+        }
+        return result == NO_CONVERTER ? null : (MicroProfileTypedConverter<T>) result;
+    }
+
+    private static MicroProfileTypedConverter<?> findImplicitConverter(Class<?> clazz) {
+        MicroProfileTypedConverter<?> result = createImplicitConverter(clazz);
+        return result == null ? NO_CONVERTER : result;
+    }
+
+    private static <T> MicroProfileTypedConverter<T> createImplicitConverter(Class<T> clazz) {
 
         // handle ct with String param
         Converter<T> converter = hasConverterCt(clazz, String.class);
@@ -57,10 +86,13 @@ public abstract class ImplicitConverter {
             if (!declaredConstructor.isAccessible()) {
                 declaredConstructor.setAccessible(true);
             }
-            return new ConstructorWithStringConverter<>(declaredConstructor);
+            return createConverter(clazz, declaredConstructor, LOOKUP.unreflectConstructor(declaredConstructor));
 
         } catch (NoSuchMethodException e) {
             // all fine
+        } catch (IllegalAccessException e) {
+            // Not possible since the constructor is made accessible
+            throw new IllegalStateException(e);
         }
         return null;
     }
@@ -73,47 +105,98 @@ public abstract class ImplicitConverter {
                 method.setAccessible(true);
             }
             if (Modifier.isStatic(method.getModifiers())) {
-                return new StaticMethodWithStringConverter<>(method);
+                return createConverter(clazz, method, LOOKUP.unreflect(method));
 
             }
         } catch (NoSuchMethodException e) {
             // all fine
+        } catch (IllegalAccessException e) {
+            // Not possible since the method is made accessible
+            throw new IllegalStateException(e);
         }
         return null;
     }
 
-    private static class ConstructorWithStringConverter<T> implements Converter<T> {
+    /**
+     * A Function created by the LambdaMetafactory calls the constructor or method directly, like a method reference in
+     * the code, so that the call can be inlined. That class calls the member from the class loader of this class, so
+     * it is only possible for public members of public classes visible from here, others use the MethodHandle.
+     */
+    private static <T> Converter<T> createConverter(Class<T> clazz, Executable member, MethodHandle methodHandle) {
+        Class<?> returnType = methodHandle.type().returnType();
+        if (isAccessible(clazz) && Modifier.isPublic(member.getModifiers()) && !returnType.isPrimitive()) {
+            try {
+                CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "apply", MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class), methodHandle, MethodType.methodType(returnType, String.class));
+                return new FunctionConverter<>((Function<String, Object>) callSite.getTarget().invoke());
+            } catch (Throwable t) {
+                // Use the MethodHandle
+            }
+        }
+        return new MethodHandleConverter<>(methodHandle);
+    }
+
+    private static boolean isAccessible(Class<?> clazz) {
+        if (!Modifier.isPublic(clazz.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(clazz.getName(), false, ImplicitConverter.class.getClassLoader()) == clazz;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Calls the constructor or static method through a Function generated by the LambdaMetafactory. Exceptions thrown
+     * by the constructor or method are not wrapped, except checked exceptions which are wrapped in an
+     * IllegalArgumentException.
+     */
+    private static class FunctionConverter<T> implements Converter<T> {
 
-        private Constructor<?> declaredConstructor;
+        private final Function<String, Object> function;
 
-        ConstructorWithStringConverter(Constructor<?> declaredConstructor) {
-            this.declaredConstructor = declaredConstructor;
+        FunctionConverter(Function<String, Object> function) {
+            this.function = function;
         }
 
         @Override
         public T convert(String value) {
             try {
-                return (T) declaredConstructor.newInstance(value);
+                return (T) function.apply(value);
+            } catch (RuntimeException e) {
+                throw e;
             } catch (Exception e) {
-                throw new RuntimeException(e);
+                // Checked exception of the constructor or method, not declared by the Function.
+                throw new IllegalArgumentException(e);
             }
         }
     }
 
-    private static class StaticMethodWithStringConverter<T> implements Converter<T> {
+    /**
+     * Calls the constructor or static method through a MethodHandle, for the members which can't be called by a
+     * generated Function. Exceptions thrown by the constructor or method are not wrapped, except checked exceptions
+     * which are wrapped in an IllegalArgumentException.
+     */
+    private static class MethodHandleConverter<T> implements Converter<T> {
 
-        private Method method;
+        private static final MethodType CONVERTER_TYPE = MethodType.methodType(Object.class, String.class);
 
-        public StaticMethodWithStringConverter(Method method) {
-            this.method = method;
+        private final MethodHandle methodHandle;
+
+        MethodHandleConverter(MethodHandle methodHandle) {
+            // (String)Object so that invokeExact can be used.
+            this.methodHandle = methodHandle.asType(CONVERTER_TYPE);
         }
 
         @Override
         public T convert(String value) {
             try {
-                return (T) method.invoke(null, value);
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+                return (T) (Object) methodHandle.invokeExact(value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalArgumentException(t);
             }
         }
     }
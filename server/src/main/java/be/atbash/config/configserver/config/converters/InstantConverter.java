@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config.converters;
+
+import org.eclipse.microprofile.config.spi.Converter;
+
+import javax.annotation.Priority;
+import javax.enterprise.inject.Vetoed;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Instant from an ISO-8601 date-time in UTC (2019-03-21T10:15:30Z) or with an offset (2019-03-21T10:15:30+01:00).
+ */
+@Priority(1)
+@Vetoed
+public class InstantConverter implements Converter<Instant> {
+
+    public static final InstantConverter INSTANCE = new InstantConverter();
+
+    @Override
+    public Instant convert(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            if (value.endsWith("Z")) {
+                return DateTimeFormatter.ISO_INSTANT.parse(value, Instant::from);
+            }
+            return OffsetDateTime.parse(value, DateTimeFormatter.ISO_OFFSET_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(String.format("Invalid instant '%s'", value), e);
+        }
+    }
+}
@@ -25,7 +25,7 @@ import javax.enterprise.inject.Vetoed;
  */
 @Priority(1)
 @Vetoed
-public class IntegerConverter implements Converter<Integer> {
+public class IntegerConverter implements Converter<Integer>, PrimitiveIntConverter {
 
     public static final IntegerConverter INSTANCE = new IntegerConverter();
 
@@ -33,4 +33,9 @@ public class IntegerConverter implements Converter<Integer> {
     public Integer convert(String value) {
         return value != null ? Integer.valueOf(value) : null;
     }
+
+    @Override
+    public int convertInt(String value) {
+        return Integer.parseInt(value);
+    }
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config.converters;
+
+import org.eclipse.microprofile.config.spi.Converter;
+
+import javax.annotation.Priority;
+import javax.enterprise.inject.Vetoed;
+import java.time.LocalDate;
+
+/**
+ * LocalDate in one of the formats of {@link DatePatterns}.
+ */
+@Priority(1)
+@Vetoed
+public class LocalDateConverter implements Converter<LocalDate> {
+
+    public static final LocalDateConverter INSTANCE = new LocalDateConverter(DatePatterns.DEFAULT);
+
+    private final DatePatterns datePatterns;
+
+    public LocalDateConverter(DatePatterns datePatterns) {
+        this.datePatterns = datePatterns;
+    }
+
+    @Override
+    public LocalDate convert(String value) {
+        return value != null ? datePatterns.parseLocalDate(value) : null;
+    }
+}
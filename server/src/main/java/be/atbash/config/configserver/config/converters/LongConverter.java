@@ -25,7 +25,7 @@ import javax.enterprise.inject.Vetoed;
  */
 @Priority(1)
 @Vetoed
-public class LongConverter implements Converter<Long> {
+public class LongConverter implements Converter<Long>, PrimitiveLongConverter {
 
     public static final LongConverter INSTANCE = new LongConverter();
 
@@ -33,4 +33,9 @@ public class LongConverter implements Converter<Long> {
     public Long convert(String value) {
         return value != null ? Long.valueOf(value) : null;
     }
+
+    @Override
+    public long convertLong(String value) {
+        return Long.parseLong(value);
+    }
 }
@@ -45,6 +45,10 @@ public class MicroProfileTypedConverter<T> {
         }
     }
 
+    public Converter<T> getDelegate() {
+        return delegate;
+    }
+
     public T convert(String value) {
         return delegate.convert(value);
     }
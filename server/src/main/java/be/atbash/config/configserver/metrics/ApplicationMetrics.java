@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the configuration of one application and stage.
+ */
+public final class ApplicationMetrics {
+
+    private final ConcurrentMap<Integer, LongAdder> responses = new ConcurrentHashMap<>();
+    private final LatencyHistogram requestDuration = new LatencyHistogram();
+    private final LatencyHistogram buildDuration = new LatencyHistogram();
+    private final LatencyHistogram encodeDuration = new LatencyHistogram();
+    private final LongAdder snapshotHits = new LongAdder();
+    private final LongAdder snapshotMisses = new LongAdder();
+    private final LongAdder payloadBytes = new LongAdder();
+
+    ApplicationMetrics() {
+    }
+
+    public void recordRequest(int status, long nanos, int bytes) {
+        LongAdder counter = responses.get(status);
+        if (counter == null) {
+            counter = responses.computeIfAbsent(status, s -> new LongAdder());
+        }
+        counter.increment();
+        requestDuration.record(nanos);
+        payloadBytes.add(bytes);
+    }
+
+    public void recordBuild(long nanos) {
+        buildDuration.record(nanos);
+    }
+
+    public void recordEncode(long nanos) {
+        encodeDuration.record(nanos);
+    }
+
+    public void recordSnapshotHit() {
+        snapshotHits.increment();
+    }
+
+    public void recordSnapshotMiss() {
+        snapshotMisses.increment();
+    }
+
+    Map<Integer, Long> getResponses() {
+        Map<Integer, Long> result = new TreeMap<>();
+        responses.forEach((status, count) -> result.put(status, count.sum()));
+        return result;
+    }
+
+    LatencyHistogram getRequestDuration() {
+        return requestDuration;
+    }
+
+    LatencyHistogram getBuildDuration() {
+        return buildDuration;
+    }
+
+    LatencyHistogram getEncodeDuration() {
+        return encodeDuration;
+    }
+
+    long getSnapshotHits() {
+        return snapshotHits.sum();
+    }
+
+    long getSnapshotMisses() {
+        return snapshotMisses.sum();
+    }
+
+    long getPayloadBytes() {
+        return payloadBytes.sum();
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.metrics;
+
+import be.atbash.config.configserver.config.SnapshotKey;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Counters and histograms of the server, for each application and stage, written in the Prometheus text format.
+ */
+@ApplicationScoped
+public class ConfigServerMetrics {
+
+    private static final String METRIC_PREFIX = "config_server_";
+
+    private final ConcurrentMap<SnapshotKey, ApplicationMetrics> applications = new ConcurrentHashMap<>();
+
+    private final LongAdder unknownApplicationRequests = new LongAdder();
+
+    /**
+     * Metrics of the application and stage of a snapshot. Snapshots only exist for the configured applications and
+     * the stages which have configuration files, a stage chosen by the client never creates a series.
+     */
+    public ApplicationMetrics forKey(SnapshotKey key) {
+        ApplicationMetrics result = applications.get(key);
+        if (result == null) {
+            result = applications.computeIfAbsent(key, k -> new ApplicationMetrics());
+        }
+        return result;
+    }
+
+    /**
+     * Request for an application which isn't known by the server. Not kept by application, the name is chosen by the
+     * client.
+     */
+    public void recordUnknownApplication() {
+        unknownApplicationRequests.increment();
+    }
+
+    /**
+     * All metrics in the Prometheus text exposition format (version 0.0.4).
+     */
+    public String scrape() {
+        // Not by toString(), application 'a-b' and application 'a' with stage 'b' are different series.
+        Map<SnapshotKey, ApplicationMetrics> sorted = new TreeMap<>(Comparator.comparing(SnapshotKey::getApplication)
+                .thenComparing(SnapshotKey::getStage, Comparator.nullsFirst(Comparator.<String>naturalOrder())));
+        sorted.putAll(applications);
+
+        StringBuilder result = new StringBuilder();
+
+        writeHeader(result, "requests_total", "counter", "Requests for the configuration of an application, by response status.");
+        for (Map.Entry<SnapshotKey, ApplicationMetrics> entry : sorted.entrySet()) {
+            for (Map.Entry<Integer, Long> response : entry.getValue().getResponses().entrySet()) {
+                result.append(METRIC_PREFIX).append("requests_total");
+                writeLabels(result, entry.getKey(), "status", String.valueOf(response.getKey()));
+                result.append(' ').append(response.getValue()).append('\n');
+            }
+        }
+
+        writeHeader(result, "unknown_application_requests_total", "counter", "Requests for an application which isn't known.");
+        result.append(METRIC_PREFIX).append("unknown_application_requests_total ").append(unknownApplicationRequests.sum()).append('\n');
+
+        writeHistogram(result, sorted, "request_duration_seconds", "Duration of handling a request.", ApplicationMetrics::getRequestDuration);
+        writeHistogram(result, sorted, "snapshot_build_duration_seconds", "Duration of reading the configuration files of an application.", ApplicationMetrics::getBuildDuration);
+        writeHistogram(result, sorted, "payload_encode_duration_seconds", "Duration of encoding the configuration values.", ApplicationMetrics::getEncodeDuration);
+
+        writeCounter(result, sorted, "snapshot_cache_hits_total", "Requests served from the cached configuration.", ApplicationMetrics::getSnapshotHits);
+        writeCounter(result, sorted, "snapshot_cache_misses_total", "Requests for which the configuration files needed to be read.", ApplicationMetrics::getSnapshotMisses);
+        writeCounter(result, sorted, "payload_bytes_total", "Bytes of configuration values sent.", ApplicationMetrics::getPayloadBytes);
+
+        return result.toString();
+    }
+
+    private static void writeCounter(StringBuilder result, Map<SnapshotKey, ApplicationMetrics> metrics, String name, String help,
+                                     ToLongFunction<ApplicationMetrics> value) {
+        writeHeader(result, name, "counter", help);
+        for (Map.Entry<SnapshotKey, ApplicationMetrics> entry : metrics.entrySet()) {
+            result.append(METRIC_PREFIX).append(name);
+            writeLabels(result, entry.getKey(), null, null);
+            result.append(' ').append(value.applyAsLong(entry.getValue())).append('\n');
+        }
+    }
+
+    private static void writeHistogram(StringBuilder result, Map<SnapshotKey, ApplicationMetrics> metrics, String name, String help,
+                                       Function<ApplicationMetrics, LatencyHistogram> histogram) {
+        writeHeader(result, name, "histogram", help);
+        for (Map.Entry<SnapshotKey, ApplicationMetrics> entry : metrics.entrySet()) {
+            LatencyHistogram values = histogram.apply(entry.getValue());
+            long[] counts = values.getCounts();
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i];
+                String bound = i < LatencyHistogram.BUCKETS.length ? BigDecimal.valueOf(LatencyHistogram.BUCKETS[i]).toPlainString() : "+Inf";
+                result.append(METRIC_PREFIX).append(name).append("_bucket");
+                writeLabels(result, entry.getKey(), "le", bound);
+                result.append(' ').append(cumulative).append('\n');
+            }
+            result.append(METRIC_PREFIX).append(name).append("_sum");
+            writeLabels(result, entry.getKey(), null, null);
+            result.append(' ').append(values.getSumSeconds()).append('\n');
+            result.append(METRIC_PREFIX).append(name).append("_count");
+            writeLabels(result, entry.getKey(), null, null);
+            result.append(' ').append(cumulative).append('\n');
+        }
+    }
+
+    private static void writeHeader(StringBuilder result, String name, String type, String help) {
+        result.append("# HELP ").append(METRIC_PREFIX).append(name).append(' ').append(help).append('\n');
+        result.append("# TYPE ").append(METRIC_PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void writeLabels(StringBuilder result, SnapshotKey key, String extraLabel, String extraValue) {
+        result.append("{application=\"");
+        appendLabelValue(result, key.getApplication());
+        result.append("\",stage=\"");
+        appendLabelValue(result, key.getStage() == null ? "" : key.getStage());
+        result.append('"');
+        if (extraLabel != null) {
+            result.append(',').append(extraLabel).append("=\"");
+            appendLabelValue(result, extraValue);
+            result.append('"');
+        }
+        result.append('}');
+    }
+
+    private static void appendLabelValue(StringBuilder result, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                result.append('\\').append(c);
+            } else if (c == '\n') {
+                result.append("\\n");
+            } else {
+                result.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.rest;
+
+import be.atbash.config.configserver.config.ConfigDelta;
+import be.atbash.config.configserver.config.ConfigSnapshot;
+import be.atbash.config.configserver.config.SnapshotKey;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+/**
+ * Sends the Server-Sent Events about configuration changes of one application to all its subscribers. The event is
+ * created once for each change and the same bytes are queued for every subscriber, see {@link ConfigEventSubscriber}.
+ */
+class ConfigEventBroadcaster {
+
+    private static final String VERSION_EVENT = "config-version";
+    private static final String CHANGED_EVENT = "config-changed";
+
+    // A comment line, ignored by the clients. Keeps the connection open through proxies and detects dead clients.
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final ConcurrentMap<SnapshotKey, Set<ConfigEventSubscriber>> subscribers = new ConcurrentHashMap<>();
+
+    void subscribe(SnapshotKey key, ConfigSnapshot snapshot, AsyncContext asyncContext) throws IOException {
+        ConfigEventSubscriber subscriber = new ConfigEventSubscriber(asyncContext);
+        asyncContext.addListener(new UnsubscribeListener(key, subscriber));
+        subscribers.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriber.start();
+
+        // Let the client know which version it has.
+        subscriber.send(defineEvent(snapshot, null));
+    }
+
+    /**
+     * Sends the change to the subscribers of the stages which are served by the current snapshot (servedBy).
+     */
+    void broadcast(ConfigSnapshot previous, ConfigSnapshot current, Predicate<SnapshotKey> servedBy) {
+        byte[] event = null;
+        for (Map.Entry<SnapshotKey, Set<ConfigEventSubscriber>> entry : subscribers.entrySet()) {
+            if (entry.getValue().isEmpty() || !servedBy.test(entry.getKey())) {
+                continue;
+            }
+            if (event == null) {
+                // Created once, for all subscribers.
+                event = defineEvent(current, ConfigDelta.between(previous.getValues(), current.getValues()));
+            }
+            send(entry.getValue(), event);
+        }
+    }
+
+    /**
+     * Sends a comment to all subscribers, a client which is gone is detected and removed.
+     */
+    void heartbeat() {
+        for (Set<ConfigEventSubscriber> keySubscribers : subscribers.values()) {
+            send(keySubscribers, HEARTBEAT);
+        }
+    }
+
+    private static void send(Set<ConfigEventSubscriber> keySubscribers, byte[] event) {
+        // Never blocks, see ConfigEventSubscriber.
+        for (ConfigEventSubscriber subscriber : keySubscribers) {
+            subscriber.send(event);
+            if (subscriber.isClosed()) {
+                keySubscribers.remove(subscriber);
+            }
+        }
+    }
+
+    void close() {
+        for (Set<ConfigEventSubscriber> keySubscribers : subscribers.values()) {
+            for (ConfigEventSubscriber subscriber : keySubscribers) {
+                subscriber.close();
+            }
+        }
+        subscribers.clear();
+    }
+
+    private static byte[] defineEvent(ConfigSnapshot snapshot, ConfigDelta delta) {
+        SnapshotKey key = snapshot.getKey();
+        StringBuilder data = new StringBuilder();
+        data.append("{\"application\":");
+        appendString(data, key.getApplication());
+        data.append(",\"stage\":");
+        if (key.getStage() == null) {
+            data.append("null");
+        } else {
+            appendString(data, key.getStage());
+        }
+        data.append(",\"version\":").append(snapshot.getVersion());
+        if (delta != null) {
+            data.append(",\"keys\":[");
+            boolean first = true;
+            for (String changedKey : delta.getKeys()) {
+                if (!first) {
+                    data.append(',');
+                }
+                appendString(data, changedKey);
+                first = false;
+            }
+            data.append(']');
+        }
+        data.append('}');
+
+        String event = "id: " + snapshot.getVersion() + "\n"
+                + "event: " + (delta == null ? VERSION_EVENT : CHANGED_EVENT) + "\n"
+                + "data: " + data + "\n\n";
+        return event.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    private class UnsubscribeListener implements AsyncListener {
+
+        private final SnapshotKey key;
+        private final ConfigEventSubscriber subscriber;
+
+        UnsubscribeListener(SnapshotKey key, ConfigEventSubscriber subscriber) {
+            this.key = key;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            unsubscribe();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            unsubscribe();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            unsubscribe();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Nothing to do
+        }
+
+        private void unsubscribe() {
+            subscriber.close();
+            Set<ConfigEventSubscriber> keySubscribers = subscribers.get(key);
+            if (keySubscribers != null) {
+                keySubscribers.remove(subscriber);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.rest;
+
+import be.atbash.config.configserver.config.ConfigReader;
+import be.atbash.config.configserver.config.ConfigSnapshot;
+import be.atbash.config.configserver.config.SnapshotKey;
+
+import javax.inject.Inject;
+import javax.servlet.AsyncContext;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Stream (text/event-stream) of the changes to the configuration of an application, GET /events/{application}?stage=..
+ * JAX-RS 2.0 has no support for Server-Sent Events, so an asynchronous Servlet is used.
+ */
+@WebServlet(urlPatterns = "/events/*", asyncSupported = true)
+public class ConfigEventServlet extends HttpServlet {
+
+    @Inject
+    private ConfigReader configReader;
+
+    @Inject
+    private ConfigEventStreams eventStreams;
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String pathInfo = request.getPathInfo();
+        String application = pathInfo == null ? "" : pathInfo.substring(1);
+
+        SnapshotKey key = new SnapshotKey(application, request.getParameter("stage"));
+        ConfigSnapshot snapshot = configReader.getSnapshot(key.getApplication(), key.getStage());
+        if (snapshot == null) {
+            response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+            return;
+        }
+
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+
+        AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(0);  // Until the client disconnects.
+        eventStreams.subscribe(key, snapshot, asyncContext);
+    }
+}
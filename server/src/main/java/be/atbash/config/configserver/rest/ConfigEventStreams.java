@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.rest;
+
+import be.atbash.config.configserver.config.ConfigReader;
+import be.atbash.config.configserver.config.ConfigSnapshot;
+import be.atbash.config.configserver.config.SnapshotKey;
+import be.atbash.config.configserver.config.SnapshotListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.servlet.AsyncContext;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps one {@link ConfigEventBroadcaster} for each application which has subscribers for the Server-Sent Events.
+ */
+@ApplicationScoped
+public class ConfigEventStreams {
+
+    // seconds
+    private static final int HEARTBEAT_INTERVAL = 15;
+
+    private final ConcurrentMap<String, ConfigEventBroadcaster> broadcasters = new ConcurrentHashMap<>();
+
+    private final SnapshotListener listener = this::snapshotChanged;
+
+    // Events are prepared outside the thread which detects the configuration changes. The writes don't block, so one
+    // thread serves all applications.
+    private ScheduledExecutorService broadcastExecutor;
+
+    @Inject
+    private ConfigReader configReader;
+
+    @PostConstruct
+    public void init() {
+        broadcastExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "config-event-broadcaster");
+            thread.setDaemon(true);
+            return thread;
+        });
+        broadcastExecutor.scheduleWithFixedDelay(this::heartbeat, HEARTBEAT_INTERVAL, HEARTBEAT_INTERVAL, TimeUnit.SECONDS);
+        configReader.addSnapshotListener(listener);
+    }
+
+    @PreDestroy
+    public void stop() {
+        configReader.removeSnapshotListener(listener);
+        broadcastExecutor.shutdownNow();
+        for (ConfigEventBroadcaster broadcaster : broadcasters.values()) {
+            broadcaster.close();
+        }
+    }
+
+    /**
+     * Subscribes to the changes of the application and stage (key), the client has the values of the snapshot.
+     */
+    public void subscribe(SnapshotKey key, ConfigSnapshot snapshot, AsyncContext asyncContext) throws IOException {
+        broadcasters.computeIfAbsent(key.getApplication(), application -> new ConfigEventBroadcaster())
+                .subscribe(key, snapshot, asyncContext);
+    }
+
+    private void heartbeat() {
+        for (ConfigEventBroadcaster broadcaster : broadcasters.values()) {
+            broadcaster.heartbeat();
+        }
+    }
+
+    private void snapshotChanged(ConfigSnapshot previous, ConfigSnapshot current) {
+        ConfigEventBroadcaster broadcaster = broadcasters.get(current.getKey().getApplication());
+        if (broadcaster != null) {
+            broadcastExecutor.execute(() -> broadcaster.broadcast(previous, current, key -> configReader.isServedBy(key, current)));
+        }
+    }
+}
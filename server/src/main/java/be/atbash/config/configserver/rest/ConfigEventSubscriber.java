@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.rest;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * One client of the Server-Sent Events. The events are written with non-blocking I/O (Servlet 3.1), a client which
+ * doesn't read its events only fills its own queue and is disconnected when the queue is full. It never holds up the
+ * other clients.
+ */
+class ConfigEventSubscriber implements WriteListener {
+
+    private static final Logger LOGGER = Logger.getLogger(ConfigEventSubscriber.class.getName());
+
+    // Events waiting for a client which doesn't read them.
+    private static final int MAX_PENDING_EVENTS = 100;
+
+    private final AsyncContext asyncContext;
+    private final ServletOutputStream outputStream;
+
+    // Guarded by this
+    private final Queue<byte[]> pending = new ArrayDeque<>();
+    private boolean closed;
+
+    ConfigEventSubscriber(AsyncContext asyncContext) throws IOException {
+        this.asyncContext = asyncContext;
+        outputStream = asyncContext.getResponse().getOutputStream();
+    }
+
+    /**
+     * Switches the response to non-blocking I/O, to be called on the request thread.
+     */
+    void start() {
+        outputStream.setWriteListener(this);
+    }
+
+    /**
+     * Queues the event and writes as much as the client accepts without blocking.
+     */
+    synchronized void send(byte[] event) {
+        if (closed) {
+            return;
+        }
+        if (pending.size() >= MAX_PENDING_EVENTS) {
+            LOGGER.fine("Removing subscriber which doesn't read its events");
+            close();
+            return;
+        }
+        pending.add(event);
+        write();
+    }
+
+    @Override
+    public synchronized void onWritePossible() {
+        write();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        // Client is gone.
+        LOGGER.log(Level.FINE, "Removing subscriber", throwable);
+        close();
+    }
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        pending.clear();
+        try {
+            asyncContext.complete();
+        } catch (IllegalStateException e) {
+            // Already completed
+        }
+    }
+
+    // Called while holding the lock
+    private void write() {
+        if (closed) {
+            return;
+        }
+        try {
+            // When isReady() returns false, the container calls onWritePossible() once the client has read the data.
+            while (!pending.isEmpty() && outputStream.isReady()) {
+                outputStream.write(pending.poll());
+            }
+            if (pending.isEmpty() && outputStream.isReady()) {
+                outputStream.flush();
+            }
+        } catch (IOException | IllegalStateException e) {
+            LOGGER.log(Level.FINE, "Removing subscriber", e);
+            close();
+        }
+    }
+}
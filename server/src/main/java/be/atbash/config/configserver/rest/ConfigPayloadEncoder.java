@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.rest;
+
+import be.atbash.config.configserver.config.ConfigDelta;
+import be.atbash.config.configserver.config.ConfigSnapshot;
+import be.atbash.config.configserver.config.EncodedPayload;
+import be.atbash.config.configserver.metrics.ConfigServerMetrics;
+import be.atbash.ee.security.octopus.jwt.JWTEncoding;
+import be.atbash.ee.security.octopus.jwt.encoder.JWTEncoder;
+import be.atbash.ee.security.octopus.jwt.parameter.JWTParameters;
+import be.atbash.ee.security.octopus.jwt.parameter.JWTParametersBuilder;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encodes the configuration values of a snapshot and creates the responses containing them.
+ */
+@ApplicationScoped
+public class ConfigPayloadEncoder {
+
+    public static final String VERSION_HEADER = "X-Config-Version";
+    public static final String DELTA_HEADER = "X-Config-Delta";
+
+    private static final JWTParameters PARAMETERS = JWTParametersBuilder.newBuilderFor(JWTEncoding.NONE).build();
+
+    @Inject
+    private JWTEncoder jwtEncoder;
+
+    @Inject
+    private ConfigServerMetrics metrics;
+
+    public ConfigPayloadEncoder() {
+        // Created by CDI
+    }
+
+    /**
+     * Outside of CDI, like in benchmarks.
+     */
+    public ConfigPayloadEncoder(JWTEncoder jwtEncoder, ConfigServerMetrics metrics) {
+        this.jwtEncoder = jwtEncoder;
+        this.metrics = metrics;
+    }
+
+    public EncodedPayload getPayload(ConfigSnapshot snapshot) {
+        return snapshot.getPayload(values -> encode(snapshot, values));
+    }
+
+    /**
+     * Encoded values of the keys starting with the prefix, or all values when the prefix is null.
+     */
+    public EncodedPayload getPayload(ConfigSnapshot snapshot, String prefix) {
+        return prefix == null ? getPayload(snapshot) : snapshot.getPayload(prefix, values -> encode(snapshot, values));
+    }
+
+    public String encode(Map<String, ?> data) {
+        return jwtEncoder.encode(data, PARAMETERS);
+    }
+
+    private String encode(ConfigSnapshot snapshot, Map<String, ?> data) {
+        long start = System.nanoTime();
+        try {
+            return encode(data);
+        } finally {
+            metrics.forKey(snapshot.getKey()).recordEncode(System.nanoTime() - start);
+        }
+    }
+
+    public EntityTag getEntityTag(ConfigSnapshot snapshot) {
+        return getEntityTag(snapshot, null);
+    }
+
+    public EntityTag getEntityTag(ConfigSnapshot snapshot, String prefix) {
+        return new EntityTag(getPayload(snapshot, prefix).getHash());
+    }
+
+    /**
+     * 200 response with the encoded configuration values of the snapshot.
+     */
+    public Response.ResponseBuilder ok(ConfigSnapshot snapshot) {
+        return ok(snapshot, null);
+    }
+
+    /**
+     * 200 response with the encoded configuration values of the snapshot which have a key starting with the prefix,
+     * all values when prefix is null.
+     */
+    public Response.ResponseBuilder ok(ConfigSnapshot snapshot, String prefix) {
+        EncodedPayload payload = getPayload(snapshot, prefix);
+        return Response.ok(payload.getContent())
+                .tag(new EntityTag(payload.getHash()))
+                .header(VERSION_HEADER, snapshot.getVersion());
+    }
+
+    /**
+     * 200 response with the keys which are added, changed and removed since the older version, or null when the older
+     * version is no longer known.
+     */
+    public Response.ResponseBuilder delta(ConfigSnapshot snapshot, long fromVersion) {
+        EncodedPayload delta = snapshot.getDelta(fromVersion, configDelta -> encodeDelta(snapshot, configDelta));
+        if (delta == null) {
+            return null;
+        }
+        return Response.ok(delta.getContent())
+                .tag(getEntityTag(snapshot))
+                .header(VERSION_HEADER, snapshot.getVersion())
+                .header(DELTA_HEADER, "true");
+    }
+
+    private String encodeDelta(ConfigSnapshot snapshot, ConfigDelta delta) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("added", delta.getAdded());
+        data.put("changed", delta.getChanged());
+        data.put("removed", new ArrayList<>(delta.getRemoved()));
+        return encode(snapshot, data);
+    }
+
+    /**
+     * 304 response indicating the client has the configuration values of the snapshot.
+     */
+    public Response.ResponseBuilder notModified(ConfigSnapshot snapshot) {
+        return Response.notModified(getEntityTag(snapshot))
+                .header(VERSION_HEADER, snapshot.getVersion());
+    }
+}
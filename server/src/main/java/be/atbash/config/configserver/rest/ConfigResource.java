@@ -16,45 +16,243 @@
 package be.atbash.config.configserver.rest;
 
 import be.atbash.config.configserver.config.ConfigReader;
-import be.atbash.ee.security.octopus.jwt.JWTEncoding;
-import be.atbash.ee.security.octopus.jwt.encoder.JWTEncoder;
-import be.atbash.ee.security.octopus.jwt.parameter.JWTParameters;
-import be.atbash.ee.security.octopus.jwt.parameter.JWTParametersBuilder;
-import org.eclipse.microprofile.config.Config;
+import be.atbash.config.configserver.config.ConfigSnapshot;
+import be.atbash.config.configserver.config.EncodedPayload;
+import be.atbash.config.configserver.config.SnapshotKey;
+import be.atbash.config.configserver.metrics.ConfigServerMetrics;
+import be.atbash.util.StringUtils;
 
+import javax.annotation.Resource;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 @Path("/config")
 @RequestScoped // Required for KumuluzEE since @ApplicationScoped doesn't work in jersey/hk2.
 public class ConfigResource {
 
+    private static final int DEFAULT_WATCH_TIMEOUT = 30;
+    private static final int MAX_WATCH_TIMEOUT = 300;
+
+    private static final int MAX_BATCH_SIZE = 50;
+
+    // Java EE 7 default, threads managed by the container.
+    private static final String MANAGED_EXECUTOR = "java:comp/DefaultManagedExecutorService";
+
     @Inject
     private ConfigReader configReader;
 
     @Inject
-    private JWTEncoder jwtEncoder;
+    private ConfigPayloadEncoder payloadEncoder;
+
+    @Inject
+    private ConfigWatchRegistry watchRegistry;
+
+    @Inject
+    private ConfigServerMetrics metrics;
+
+    // Not all runtimes have one (like KumuluzEE), the field stays null.
+    @Resource(lookup = MANAGED_EXECUTOR)
+    private ExecutorService managedExecutor;
+
+    public ConfigResource() {
+        // Created by JAX-RS / CDI
+    }
+
+    /**
+     * Outside of the container, like in tests. The executor can be null.
+     */
+    ConfigResource(ConfigReader configReader, ConfigPayloadEncoder payloadEncoder, ConfigWatchRegistry watchRegistry,
+                   ConfigServerMetrics metrics, ExecutorService managedExecutor) {
+        this.configReader = configReader;
+        this.payloadEncoder = payloadEncoder;
+        this.watchRegistry = watchRegistry;
+        this.metrics = metrics;
+        this.managedExecutor = managedExecutor;
+    }
+
+    /**
+     * Configuration of several applications in one call, GET /config?application=app1&application=app2:test. The
+     * response contains for each known application (and stage) the version, ETag and the payload as it is returned by
+     * GET /config/{application}.
+     */
+    @GET
+    @Produces("text/plain")
+    public Response getBatchConfigValues(@QueryParam("application") List<String> applications) {
+        if (applications == null || applications.isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("parameter 'application' is required").build();
+        }
+
+        List<String> ids = applications.stream().distinct().collect(Collectors.toList());
+        if (ids.size() > MAX_BATCH_SIZE) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(String.format("at most %s values for parameter 'application' are allowed", MAX_BATCH_SIZE)).build();
+        }
+        List<Map<String, String>> entries = getBatchEntries(ids);
+
+        Map<String, Map<String, String>> result = new TreeMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (entries.get(i) != null) {
+                result.put(ids.get(i), entries.get(i));
+            }
+        }
+
+        return Response.ok(payloadEncoder.encode(result)).build();
+    }
+
+    /**
+     * Snapshots which are not yet cached are built in parallel on the managed executor of the container, or one after
+     * the other when there is none. The result has the order of the ids.
+     */
+    private List<Map<String, String>> getBatchEntries(List<String> ids) {
+        if (managedExecutor == null || ids.size() == 1) {
+            return ids.stream().map(this::getBatchEntry).collect(Collectors.toList());
+        }
+
+        List<Future<Map<String, String>>> futures = new ArrayList<>();
+        for (String id : ids) {
+            futures.add(managedExecutor.submit(() -> getBatchEntry(id)));
+        }
+        List<Map<String, String>> result = new ArrayList<>();
+        try {
+            for (Future<Map<String, String>> future : futures) {
+                result.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        return result;
+    }
+
+    /**
+     * Each entry is recorded in the metrics as a request for the configuration of the application (and stage).
+     */
+    private Map<String, String> getBatchEntry(String id) {
+        long start = System.nanoTime();
+        int separator = id.indexOf(':');
+        String application = separator == -1 ? id : id.substring(0, separator);
+        String stage = separator == -1 ? null : id.substring(separator + 1);
 
+        ConfigSnapshot snapshot = configReader.getSnapshot(application, stage);
+        if (snapshot == null) {
+            metrics.recordUnknownApplication();
+            return null;
+        }
+        EncodedPayload payload = payloadEncoder.getPayload(snapshot);
+        record(snapshot, Response.Status.OK.getStatusCode(), payload.getContent().length, start);
+
+        Map<String, String> result = new HashMap<>();
+        result.put("version", String.valueOf(snapshot.getVersion()));
+        result.put("etag", payload.getHash());
+        result.put("payload", new String(payload.getContent(), StandardCharsets.UTF_8));
+        return result;
+    }
+
+    /**
+     * The configuration values of the application (and stage). With the prefix parameter, only the values with a key
+     * starting with the prefix (like datasource.) are returned.
+     */
     @GET
     @Path("/{application}")
     @Produces("text/plain")
-    public Response getApplicationConfigValues(@PathParam("application") String application, @QueryParam("stage") String stage) {
-        Config config = configReader.getConfig(application, stage);
-        if (config == null) {
+    public Response getApplicationConfigValues(@PathParam("application") String application, @QueryParam("stage") String stage,
+                                               @QueryParam("prefix") String prefix, @Context Request request) {
+        long start = System.nanoTime();
+        ConfigSnapshot snapshot = configReader.getSnapshot(application, stage);
+        if (snapshot == null) {
+            metrics.recordUnknownApplication();
             return Response.noContent().build();
         }
-        Map<String, String> configValues = new HashMap<>();
+        String keyPrefix = StringUtils.hasText(prefix) ? prefix : null;
 
-        config.getPropertyNames().forEach(key -> configValues.put(key, config.getValue(key, String.class)));
+        // A 304 Not Modified (when If-None-Match matches) has no body.
+        Response.ResponseBuilder builder = request.evaluatePreconditions(payloadEncoder.getEntityTag(snapshot, keyPrefix));
+        if (builder != null) {
+            return record(snapshot, builder.header(ConfigPayloadEncoder.VERSION_HEADER, snapshot.getVersion()).build(), start);
+        }
+        return record(snapshot, payloadEncoder.ok(snapshot, keyPrefix).build(), start);
+    }
 
-        JWTParameters parameters = JWTParametersBuilder.newBuilderFor(JWTEncoding.NONE)
-                .build();
+    /**
+     * Only the keys which are added, changed or removed since the version the client has. When that version is too old,
+     * all values are returned (X-Config-Delta header is false).
+     */
+    @GET
+    @Path("/{application}/delta")
+    @Produces("text/plain")
+    public Response getApplicationConfigDelta(@PathParam("application") String application, @QueryParam("stage") String stage,
+                                              @QueryParam("version") Long version) {
+        long start = System.nanoTime();
+        ConfigSnapshot snapshot = configReader.getSnapshot(application, stage);
+        if (snapshot == null) {
+            metrics.recordUnknownApplication();
+            return Response.noContent().build();
+        }
+        Response response;
+        if (version != null && version == snapshot.getVersion()) {
+            response = payloadEncoder.notModified(snapshot).build();
+        } else {
+            Response.ResponseBuilder builder = version == null ? null : payloadEncoder.delta(snapshot, version);
+            if (builder == null) {
+                builder = payloadEncoder.ok(snapshot).header(ConfigPayloadEncoder.DELTA_HEADER, "false");
+            }
+            response = builder.build();
+        }
+        return record(snapshot, response, start);
+    }
+
+    private Response record(ConfigSnapshot snapshot, Response response, long start) {
+        int bytes = response.getEntity() instanceof byte[] ? ((byte[]) response.getEntity()).length : 0;
+        record(snapshot, response.getStatus(), bytes, start);
+        return response;
+    }
+
+    private void record(ConfigSnapshot snapshot, int status, int bytes, long start) {
+        metrics.forKey(snapshot.getKey()).recordRequest(status, System.nanoTime() - start, bytes);
+    }
+
+    /**
+     * Long poll, the response is only sent when the version of the configuration is different from the version the
+     * client has (X-Config-Version header of the previous response) or with a 304 Not Modified when the timeout (in
+     * seconds) expires. The request is recorded in the metrics when the response is sent.
+     */
+    @GET
+    @Path("/{application}/watch")
+    @Produces("text/plain")
+    public void watchApplicationConfigValues(@PathParam("application") String application, @QueryParam("stage") String stage,
+                                             @QueryParam("version") Long version, @QueryParam("timeout") Integer timeout,
+                                             @Suspended AsyncResponse asyncResponse) {
+        long start = System.nanoTime();
+        ConfigSnapshot snapshot = configReader.getSnapshot(application, stage);
+        if (snapshot == null) {
+            metrics.recordUnknownApplication();
+            asyncResponse.resume(Response.noContent().build());
+            return;
+        }
+        if (version == null || version != snapshot.getVersion()) {
+            asyncResponse.resume(record(snapshot, payloadEncoder.ok(snapshot).build(), start));
+            return;
+        }
 
-        String data = jwtEncoder.encode(configValues, parameters);
-        return Response.ok(data).build();
+        int watchTimeout = timeout == null || timeout <= 0 ? DEFAULT_WATCH_TIMEOUT : Math.min(timeout, MAX_WATCH_TIMEOUT);
+        watchRegistry.watch(new SnapshotKey(application, stage), snapshot, asyncResponse, watchTimeout,
+                (served, response) -> record(served, response, start));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.rest;
+
+import be.atbash.config.configserver.config.ConfigReader;
+import be.atbash.config.configserver.config.ConfigSnapshot;
+import be.atbash.config.configserver.config.SnapshotKey;
+import be.atbash.config.configserver.config.SnapshotListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.CompletionCallback;
+import javax.ws.rs.core.Response;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps the suspended long-poll requests waiting for a new version of the configuration of an application (and stage).
+ * The requests don't hold a container thread while they are waiting, they are resumed by a small pool of threads so
+ * that the thread which detects the change of the configuration files is never held up by writing the responses.
+ */
+@ApplicationScoped
+public class ConfigWatchRegistry {
+
+    private static final int RESUME_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private final ConcurrentMap<SnapshotKey, Set<Watcher>> watchers = new ConcurrentHashMap<>();
+
+    private final SnapshotListener listener = this::snapshotChanged;
+
+    // Each response is resumed by its own task, a slow client only holds up one of the threads.
+    private ExecutorService resumeExecutor;
+
+    @Inject
+    private ConfigReader configReader;
+
+    @Inject
+    private ConfigPayloadEncoder payloadEncoder;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        resumeExecutor = Executors.newFixedThreadPool(RESUME_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "config-watch-resume-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        configReader.addSnapshotListener(listener);
+    }
+
+    @PreDestroy
+    public void stop() {
+        configReader.removeSnapshotListener(listener);
+        resumeExecutor.shutdownNow();
+    }
+
+    /**
+     * Suspends the request until the configuration of the application and stage (key), currently the snapshot, is
+     * changed or the timeout expires, in which case a 304 Not Modified is returned. The recorder receives the response
+     * and the snapshot it is created from, once the response is sent.
+     */
+    public void watch(SnapshotKey key, ConfigSnapshot snapshot, AsyncResponse asyncResponse, int timeout,
+                      BiConsumer<ConfigSnapshot, Response> recorder) {
+        Watcher watcher = new Watcher(asyncResponse, recorder);
+
+        asyncResponse.setTimeout(timeout, TimeUnit.SECONDS);
+        asyncResponse.setTimeoutHandler(response -> {
+            remove(key, watcher);
+            watcher.resume(snapshot, payloadEncoder.notModified(snapshot).build());
+        });
+        asyncResponse.register((CompletionCallback) throwable -> remove(key, watcher));
+
+        watchers.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(watcher);
+
+        // The snapshot could be changed before the request was registered.
+        ConfigSnapshot current = configReader.getSnapshot(key.getApplication(), key.getStage());
+        if (current != null && current.getVersion() != snapshot.getVersion()) {
+            resume(key, watcher, current);
+        }
+    }
+
+    private void snapshotChanged(ConfigSnapshot previous, ConfigSnapshot current) {
+        resumeExecutor.execute(() -> resumeWatchers(current));
+    }
+
+    private void resumeWatchers(ConfigSnapshot current) {
+        // Watchers are kept by the requested stage, which can be served by the snapshot without stage.
+        for (Map.Entry<SnapshotKey, Set<Watcher>> entry : watchers.entrySet()) {
+            SnapshotKey key = entry.getKey();
+            if (entry.getValue().isEmpty() || !configReader.isServedBy(key, current)) {
+                continue;
+            }
+            for (Watcher watcher : entry.getValue()) {
+                resumeExecutor.execute(() -> resume(key, watcher, current));
+            }
+        }
+    }
+
+    private void resume(SnapshotKey key, Watcher watcher, ConfigSnapshot snapshot) {
+        remove(key, watcher);
+        watcher.resume(snapshot, payloadEncoder.ok(snapshot).build());
+    }
+
+    private void remove(SnapshotKey key, Watcher watcher) {
+        Set<Watcher> keyWatchers = watchers.get(key);
+        if (keyWatchers != null) {
+            keyWatchers.remove(watcher);
+        }
+    }
+
+    private static final class Watcher {
+
+        private final AsyncResponse asyncResponse;
+        private final BiConsumer<ConfigSnapshot, Response> recorder;
+
+        Watcher(AsyncResponse asyncResponse, BiConsumer<ConfigSnapshot, Response> recorder) {
+            this.asyncResponse = asyncResponse;
+            this.recorder = recorder;
+        }
+
+        void resume(ConfigSnapshot snapshot, Response response) {
+            // resume() is ignored when the request is already resumed or timed out, it is then already recorded.
+            if (asyncResponse.resume(response)) {
+                recorder.accept(snapshot, response);
+            }
+        }
+    }
+}
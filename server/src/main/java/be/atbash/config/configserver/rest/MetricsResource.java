@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.rest;
+
+import be.atbash.config.configserver.metrics.ConfigServerMetrics;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+/**
+ * Metrics of the server in the Prometheus text format.
+ */
+@Path("/metrics")
+@RequestScoped
+public class MetricsResource {
+
+    @Inject
+    private ConfigServerMetrics metrics;
+
+    @GET
+    @Produces("text/plain; version=0.0.4")
+    public String getMetrics() {
+        return metrics.scrape();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config;
+
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class ConfigImplExpandTest {
+
+    @Test
+    public void getExpandedValue() {
+        ConfigImpl config = new MapConfigSource()
+                .with("url", "http://${host}:${port}")
+                .with("host", "localhost")
+                .with("port", "8080")
+                .build(true);
+
+        assertThat(config.getExpandedValue("url")).isEqualTo("http://localhost:8080");
+    }
+
+    @Test
+    public void getExpandedValue_nested() {
+        ConfigImpl config = new MapConfigSource()
+                .with("endpoint", "${url}/api")
+                .with("url", "http://${host}")
+                .with("host", "localhost")
+                .build(true);
+
+        assertThat(config.getExpandedValue("endpoint")).isEqualTo("http://localhost/api");
+        // Again, from the kept value
+        assertThat(config.getExpandedValue("endpoint")).isEqualTo("http://localhost/api");
+    }
+
+    @Test
+    public void getExpandedValue_notFrozen() {
+        ConfigImpl config = new MapConfigSource()
+                .with("endpoint", "${url}/api")
+                .with("url", "http://${host}")
+                .with("host", "localhost")
+                .build(false);
+
+        assertThat(config.getExpandedValue("endpoint")).isEqualTo("http://localhost/api");
+    }
+
+    @Test
+    public void getExpandedValue_unknownKey() {
+        ConfigImpl config = new MapConfigSource().build(true);
+
+        assertThat(config.getExpandedValue("unknown")).isNull();
+    }
+
+    @Test
+    public void getExpandedValue_missingVariable() {
+        ConfigImpl config = new MapConfigSource()
+                .with("url", "http://${host}")
+                .build(true);
+
+        try {
+            config.getExpandedValue("url");
+            fail("NoSuchElementException expected");
+        } catch (NoSuchElementException e) {
+            assertThat(e.getMessage()).isEqualTo("No config value present for key host");
+        }
+    }
+
+    @Test
+    public void getExpandedValue_directCycle() {
+        ConfigImpl config = new MapConfigSource()
+                .with("value", "x${value}")
+                .build(true);
+
+        try {
+            config.getExpandedValue("value");
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage()).isEqualTo("Cyclic reference of variables: value -> value");
+        }
+    }
+
+    @Test
+    public void getExpandedValue_indirectCycle() {
+        ConfigImpl config = new MapConfigSource()
+                .with("a", "${b}")
+                .with("b", "${c}")
+                .with("c", "${a}")
+                .build(true);
+
+        try {
+            config.getExpandedValue("a");
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage()).isEqualTo("Cyclic reference of variables: a -> b -> c -> a");
+        }
+    }
+
+    @Test
+    public void getExpandedValue_sameVariableTwice() {
+        // Not a cycle, the variable is used twice in the same value.
+        ConfigImpl config = new MapConfigSource()
+                .with("value", "${name}-${name}")
+                .with("name", "x")
+                .build(true);
+
+        assertThat(config.getExpandedValue("value")).isEqualTo("x-x");
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config;
+
+import org.junit.Test;
+
+import java.net.URL;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConfigImplValueCacheTest {
+
+    @Test
+    public void immutableType_cached() {
+        ConfigImpl config = build(true);
+
+        Integer first = config.getValue("number", Integer.class);
+
+        assertThat(config.getValue("number", Integer.class)).isSameAs(first);
+        assertThat(config.getValue("url", URL.class)).isSameAs(config.getValue("url", URL.class));
+    }
+
+    @Test
+    public void mutableType_notCached() {
+        // Each caller can modify its value, it can't be shared.
+        ConfigImpl config = build(true);
+
+        Holder first = config.getValue("holder", Holder.class);
+        first.value = "changed";
+
+        assertThat(config.getValue("holder", Holder.class).value).isEqualTo("text");
+    }
+
+    @Test
+    public void date_notCached() {
+        ConfigImpl config = build(true);
+
+        Date first = config.getValue("date", Date.class);
+
+        assertThat(config.getValue("date", Date.class)).isNotSameAs(first);
+    }
+
+    @Test
+    public void notFrozen_notCached() {
+        ConfigImpl config = build(false);
+
+        Integer first = config.getValue("number", Integer.class);
+
+        assertThat(config.getValue("number", Integer.class)).isNotSameAs(first);
+    }
+
+    private static ConfigImpl build(boolean immutable) {
+        MapConfigSource source = new MapConfigSource()
+                .with("number", "1000")
+                .with("url", "http://localhost:8080")
+                .with("holder", "text")
+                .with("date", "2019-03-21");
+        DefaultConfigBuilder builder = new DefaultConfigBuilder().withValueCache(100);
+        if (immutable) {
+            builder.withImmutableSources();
+        }
+        return (ConfigImpl) builder.withSources(source).build();
+    }
+
+    public static class Holder {
+
+        public String value;
+
+        public Holder(String value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config;
+
+import be.atbash.config.configserver.metrics.ConfigServerMetrics;
+import be.atbash.util.resource.ResourceUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConfigReaderTest {
+
+    // The file system is polled when it can't be watched.
+    private static final int NOTIFICATION_TIMEOUT = 30;
+
+    private ConfigReader configReader;
+
+    private final BlockingQueue<ConfigSnapshot[]> changes = new LinkedBlockingQueue<>();
+
+    @BeforeClass
+    public static void setupRootDirectory() throws IOException {
+        TestRootDirectory.setup();
+    }
+
+    @Before
+    public void setup() {
+        configReader = new ConfigReader(ResourceUtil.getInstance(), new ConfigServerMetrics());
+        configReader.init();
+        configReader.addSnapshotListener((previous, current) -> changes.add(new ConfigSnapshot[]{previous, current}));
+    }
+
+    @After
+    public void teardown() {
+        configReader.stop();
+    }
+
+    @Test
+    public void getSnapshot() {
+        ConfigSnapshot snapshot = configReader.getSnapshot("app1", null);
+
+        assertThat(snapshot.getKey()).isEqualTo(new SnapshotKey("app1", null));
+        assertThat(snapshot.getValues().get("key")).isEqualTo("base");
+        assertThat(configReader.getSnapshot("app1", null)).isEqualTo(snapshot);
+    }
+
+    @Test
+    public void getSnapshot_unknownApplication() {
+        assertThat(configReader.getSnapshot("other", null)).isNull();
+    }
+
+    @Test
+    public void getSnapshot_stageWithoutFiles() {
+        ConfigSnapshot snapshot = configReader.getSnapshot("app1", "test");
+
+        assertThat(snapshot).isEqualTo(configReader.getSnapshot("app1", null));
+        assertThat(configReader.isServedBy(new SnapshotKey("app1", "test"), snapshot)).isTrue();
+        assertThat(configReader.isServedBy(new SnapshotKey("app1", "test"), configReader.getSnapshot("app1", "test"))).isTrue();
+    }
+
+    @Test
+    public void stageFileCreated() throws IOException, InterruptedException {
+        ConfigSnapshot withoutStage = configReader.getSnapshot("app1", "acc");
+        assertThat(withoutStage.getKey()).isEqualTo(new SnapshotKey("app1", null));
+
+        TestRootDirectory.writeFile("app1-acc.properties", "key=acc\n");
+
+        // The clients of the stage received the snapshot without stage until now, they must be notified.
+        ConfigSnapshot[] change = changes.poll(NOTIFICATION_TIMEOUT, TimeUnit.SECONDS);
+        assertThat(change).isNotNull();
+        assertThat(change[0]).isEqualTo(withoutStage);
+        assertThat(change[1].getKey()).isEqualTo(new SnapshotKey("app1", "acc"));
+        assertThat(change[1].getValues().get("key")).isEqualTo("acc");
+
+        assertThat(configReader.isServedBy(new SnapshotKey("app1", "acc"), change[1])).isTrue();
+        assertThat(configReader.isServedBy(new SnapshotKey("app1", null), change[1])).isFalse();
+        assertThat(configReader.getSnapshot("app1", "acc").getValues().get("key")).isEqualTo("acc");
+        assertThat(configReader.getSnapshot("app1", null).getValues().get("key")).isEqualTo("base");
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConfigValueImplTest {
+
+    private final MapConfigSource source = new MapConfigSource().with("number", "1").with("flag", "true");
+
+    // Not frozen, a change of the source is seen by the next call.
+    private final ConfigImpl config = source.build(false);
+
+    @Test
+    public void getInt() {
+        ConfigValueImpl<String> value = config.access("number");
+
+        assertThat(value.getInt()).isEqualTo(1);
+        source.with("number", "2");
+        assertThat(value.getInt()).isEqualTo(2);
+    }
+
+    @Test
+    public void getInt_cacheFor() {
+        ConfigValueImpl<String> value = config.access("number").cacheFor(1, TimeUnit.HOURS);
+
+        assertThat(value.getInt()).isEqualTo(1);
+        source.with("number", "2");
+        // Like getValue()
+        assertThat(value.getInt()).isEqualTo(1);
+        assertThat(value.getLong()).isEqualTo(1L);
+        assertThat(value.getDouble()).isEqualTo(1.0);
+        assertThat(value.getValue()).isEqualTo("1");
+    }
+
+    @Test
+    public void getInt_onChange() {
+        List<String> changes = new ArrayList<>();
+        ConfigValueImpl<Integer> value = config.access("number").as(Integer.class).onChange(new ConfigValueImpl.ConfigChanged() {
+            @Override
+            public <T> void onValueChange(String key, T oldValue, T newValue) {
+                changes.add(key + ": " + oldValue + " -> " + newValue);
+            }
+        });
+
+        assertThat(value.getInt()).isEqualTo(1);
+        source.with("number", "2");
+        assertThat(value.getInt()).isEqualTo(2);
+
+        assertThat(changes).containsExactly("number: null -> 1", "number: 1 -> 2");
+    }
+
+    @Test
+    public void getBoolean_cacheFor() {
+        ConfigValueImpl<String> value = config.access("flag").cacheFor(1, TimeUnit.HOURS);
+
+        assertThat(value.getBoolean()).isTrue();
+        source.with("flag", "false");
+        assertThat(value.getBoolean()).isTrue();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config;
+
+import org.eclipse.microprofile.config.spi.ConfigSource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In memory ConfigSource for the tests.
+ */
+public class MapConfigSource implements ConfigSource {
+
+    private final Map<String, String> properties = new HashMap<>();
+
+    public MapConfigSource with(String key, String value) {
+        properties.put(key, value);
+        return this;
+    }
+
+    @Override
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    @Override
+    public Set<String> getPropertyNames() {
+        return properties.keySet();
+    }
+
+    @Override
+    public String getValue(String key) {
+        return properties.get(key);
+    }
+
+    @Override
+    public String getName() {
+        return "test";
+    }
+
+    @Override
+    public int getOrdinal() {
+        return 100;
+    }
+
+    public ConfigImpl build(boolean immutable) {
+        DefaultConfigBuilder builder = new DefaultConfigBuilder();
+        if (immutable) {
+            builder.withImmutableSources();
+        }
+        builder.withSources(this);
+        return (ConfigImpl) builder.build();
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Root directory with the configuration files of app1 (key=base), for the tests which create a ConfigReader. The
+ * configuration is read from the system properties only once, so all these tests share the same directory.
+ */
+public final class TestRootDirectory {
+
+    private static Path rootDirectory;
+
+    private TestRootDirectory() {
+    }
+
+    public static synchronized void setup() throws IOException {
+        if (rootDirectory != null) {
+            return;
+        }
+        rootDirectory = Files.createTempDirectory("config-server");
+        Files.createDirectory(rootDirectory.resolve("app1"));
+        writeFile("app1.properties", "key=base\n");
+
+        // Read by ConfigReader.init()
+        System.setProperty("rootDirectory", rootDirectory.toString());
+        System.setProperty("applications", "app1");
+        System.setProperty("pollInterval", "1");
+    }
+
+    public static void writeFile(String fileName, String content) throws IOException {
+        Files.write(rootDirectory.resolve("app1").resolve(fileName), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ValueListTokenizerTest {
+
+    @Test
+    public void tokenize() {
+        List<String> tokens = ValueListTokenizer.tokenize("a,b,c");
+
+        assertThat(tokens).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    public void tokenize_escapedSeparator() {
+        List<String> tokens = ValueListTokenizer.tokenize("a\\,b,c");
+
+        assertThat(tokens).containsExactly("a,b", "c");
+    }
+
+    @Test
+    public void tokenize_escapedBackslash() {
+        // \\ before the separator is a backslash at the end of the element.
+        List<String> tokens = ValueListTokenizer.tokenize("a\\\\,b");
+
+        assertThat(tokens).containsExactly("a\\", "b");
+    }
+
+    @Test
+    public void tokenize_otherBackslashKept() {
+        List<String> tokens = ValueListTokenizer.tokenize("c:\\temp,d");
+
+        assertThat(tokens).containsExactly("c:\\temp", "d");
+    }
+
+    @Test
+    public void tokenize_emptyElementsSkipped() {
+        List<String> tokens = ValueListTokenizer.tokenize(",a,,b,");
+
+        assertThat(tokens).containsExactly("a", "b");
+    }
+
+    @Test
+    public void tokenize_emptyElementsSkipped_escaped() {
+        List<String> tokens = ValueListTokenizer.tokenize("a\\,,,b");
+
+        assertThat(tokens).containsExactly("a,", "b");
+    }
+
+    @Test
+    public void tokenize_empty() {
+        assertThat(ValueListTokenizer.tokenize("")).isEmpty();
+        assertThat(ValueListTokenizer.tokenize(null)).isEmpty();
+        assertThat(ValueListTokenizer.tokenize(",,")).isEmpty();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VariableTemplateTest {
+
+    @Test
+    public void expand() {
+        Map<String, String> values = new HashMap<>();
+        values.put("host", "localhost");
+        values.put("port", "8080");
+
+        VariableTemplate template = VariableTemplate.compile("http://${host}:${port}/app");
+
+        assertThat(template.hasVariables()).isTrue();
+        assertThat(template.expand(values::get)).isEqualTo("http://localhost:8080/app");
+    }
+
+    @Test
+    public void expand_noVariables() {
+        VariableTemplate template = VariableTemplate.compile("plain value");
+
+        assertThat(template.hasVariables()).isFalse();
+        assertThat(template.expand(name -> "x")).isEqualTo("plain value");
+    }
+
+    @Test
+    public void expand_notTerminated() {
+        VariableTemplate template = VariableTemplate.compile("a${b}c${d");
+
+        assertThat(template.expand(name -> "B")).isEqualTo("aBc${d");
+    }
+
+    @Test
+    public void expand_emptyName() {
+        VariableTemplate template = VariableTemplate.compile("a${}b");
+
+        assertThat(template.hasVariables()).isFalse();
+        assertThat(template.expand(name -> "x")).isEqualTo("a${}b");
+    }
+}
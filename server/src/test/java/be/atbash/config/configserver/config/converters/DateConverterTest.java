@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config.converters;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DateConverterTest {
+
+    @Test
+    public void convert_isoDate() {
+        assertThat(DateConverter.INSTANCE.convert("2019-03-21")).isEqualTo(localDate(LocalDateTime.of(2019, 3, 21, 0, 0)));
+    }
+
+    @Test
+    public void convert_isoDateTime_utc() {
+        Date expected = Date.from(OffsetDateTime.of(2019, 3, 21, 10, 15, 30, 0, ZoneOffset.UTC).toInstant());
+
+        assertThat(DateConverter.INSTANCE.convert("2019-03-21T10:15:30Z")).isEqualTo(expected);
+    }
+
+    @Test
+    public void convert_isoDateTime_offset() {
+        Date expected = Date.from(OffsetDateTime.of(2019, 3, 21, 10, 15, 30, 0, ZoneOffset.ofHours(1)).toInstant());
+
+        assertThat(DateConverter.INSTANCE.convert("2019-03-21T10:15:30+01:00")).isEqualTo(expected);
+    }
+
+    @Test
+    public void convert_isoDateTime_withoutOffset() {
+        // In the default time zone
+        assertThat(DateConverter.INSTANCE.convert("2019-03-21T10:15:30")).isEqualTo(localDate(LocalDateTime.of(2019, 3, 21, 10, 15, 30)));
+    }
+
+    @Test
+    public void convert_patternWithTime() {
+        DateConverter converter = new DateConverter(new DatePatterns(Collections.singletonList("dd/MM/yyyy HH:mm")));
+
+        assertThat(converter.convert("21/03/2019 10:15")).isEqualTo(localDate(LocalDateTime.of(2019, 3, 21, 10, 15)));
+    }
+
+    @Test
+    public void convert_null() {
+        assertThat(DateConverter.INSTANCE.convert(null)).isNull();
+    }
+
+    private static Date localDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
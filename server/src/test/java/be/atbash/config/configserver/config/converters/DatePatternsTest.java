@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config.converters;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class DatePatternsTest {
+
+    @Test
+    public void parseLocalDate_iso() {
+        assertThat(DatePatterns.DEFAULT.parseLocalDate("2019-03-21")).isEqualTo(LocalDate.of(2019, 3, 21));
+    }
+
+    @Test
+    public void parseLocalDate_pattern() {
+        DatePatterns datePatterns = new DatePatterns(Collections.singletonList("dd/MM/yyyy"));
+
+        assertThat(datePatterns.parseLocalDate("21/03/2019")).isEqualTo(LocalDate.of(2019, 3, 21));
+        // ISO date is always supported
+        assertThat(datePatterns.parseLocalDate("2019-03-21")).isEqualTo(LocalDate.of(2019, 3, 21));
+    }
+
+    @Test
+    public void parseLocalDate_localized() {
+        String value = LocalDate.of(2019, 3, 21).format(DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM));
+
+        assertThat(DatePatterns.DEFAULT.parseLocalDate(value)).isEqualTo(LocalDate.of(2019, 3, 21));
+    }
+
+    @Test
+    public void parseLocalDate_invalid() {
+        try {
+            DatePatterns.DEFAULT.parseLocalDate("21/03/2019");
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage()).isEqualTo("Invalid date '21/03/2019'");
+        }
+    }
+
+    @Test
+    public void parseLocalDateTime_iso() {
+        assertThat(DatePatterns.DEFAULT.parseLocalDateTime("2019-03-21")).isEqualTo(LocalDateTime.of(2019, 3, 21, 0, 0));
+    }
+
+    @Test
+    public void parseLocalDateTime_patternWithTime() {
+        DatePatterns datePatterns = new DatePatterns(Arrays.asList("dd/MM/yyyy HH:mm", "dd/MM/yyyy"));
+
+        // The time must not be truncated.
+        assertThat(datePatterns.parseLocalDateTime("21/03/2019 10:15")).isEqualTo(LocalDateTime.of(2019, 3, 21, 10, 15));
+        assertThat(datePatterns.parseLocalDateTime("21/03/2019")).isEqualTo(LocalDateTime.of(2019, 3, 21, 0, 0));
+    }
+
+    @Test
+    public void parseLocalDateTime_localized() {
+        String value = LocalDate.of(2019, 3, 21).format(DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM));
+
+        assertThat(DatePatterns.DEFAULT.parseLocalDateTime(value)).isEqualTo(LocalDateTime.of(2019, 3, 21, 0, 0));
+    }
+
+    @Test
+    public void invalidPattern() {
+        try {
+            new DatePatterns(Collections.singletonList("dd/MM/yyyy {"));
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage()).startsWith("Invalid date pattern 'dd/MM/yyyy {' : ");
+        }
+    }
+
+    @Test
+    public void localDateConverter() {
+        LocalDateConverter converter = new LocalDateConverter(new DatePatterns(Collections.singletonList("dd/MM/yyyy")));
+
+        assertThat(converter.convert("21/03/2019")).isEqualTo(LocalDate.of(2019, 3, 21));
+        assertThat(converter.convert(null)).isNull();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config.converters;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class DurationConverterTest {
+
+    @Test
+    public void convert_iso() {
+        assertThat(DurationConverter.INSTANCE.convert("PT15M")).isEqualTo(Duration.ofMinutes(15));
+        assertThat(DurationConverter.INSTANCE.convert("P1DT2H")).isEqualTo(Duration.ofHours(26));
+        assertThat(DurationConverter.INSTANCE.convert("-PT1S")).isEqualTo(Duration.ofSeconds(-1));
+    }
+
+    @Test
+    public void convert_unit() {
+        assertThat(DurationConverter.INSTANCE.convert("500ms")).isEqualTo(Duration.ofMillis(500));
+        assertThat(DurationConverter.INSTANCE.convert("30s")).isEqualTo(Duration.ofSeconds(30));
+        assertThat(DurationConverter.INSTANCE.convert("15m")).isEqualTo(Duration.ofMinutes(15));
+        assertThat(DurationConverter.INSTANCE.convert("2h")).isEqualTo(Duration.ofHours(2));
+        assertThat(DurationConverter.INSTANCE.convert("1d")).isEqualTo(Duration.ofDays(1));
+    }
+
+    @Test
+    public void convert_unknownUnit() {
+        try {
+            DurationConverter.INSTANCE.convert("15w");
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage()).isEqualTo("Invalid duration '15w', unknown unit");
+        }
+    }
+
+    @Test
+    public void convert_noAmount() {
+        try {
+            DurationConverter.INSTANCE.convert("ms");
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage()).isEqualTo("Invalid duration 'ms'");
+        }
+    }
+
+    @Test
+    public void convert_null() {
+        assertThat(DurationConverter.INSTANCE.convert(null)).isNull();
+    }
+}
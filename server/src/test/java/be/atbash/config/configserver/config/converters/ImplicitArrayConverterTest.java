@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config.converters;
+
+import be.atbash.config.configserver.config.ConfigImpl;
+import be.atbash.config.configserver.config.MapConfigSource;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class ImplicitArrayConverterTest {
+
+    @Test
+    public void intArray() {
+        ConfigImpl config = new MapConfigSource().with("key", "1,2,,3").build(true);
+
+        assertThat(config.getValue("key", int[].class)).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    public void longArray() {
+        ConfigImpl config = new MapConfigSource().with("key", "1,2,,3").build(true);
+
+        assertThat(config.getValue("key", long[].class)).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    public void doubleArray() {
+        ConfigImpl config = new MapConfigSource().with("key", "1.5,,2").build(true);
+
+        assertThat(config.getValue("key", double[].class)).containsExactly(1.5, 2.0);
+    }
+
+    @Test
+    public void booleanArray() {
+        ConfigImpl config = new MapConfigSource().with("key", "true,,false").build(true);
+
+        assertThat(config.getValue("key", boolean[].class)).containsExactly(true, false);
+    }
+
+    @Test
+    public void intArray_invalid() {
+        ConfigImpl config = new MapConfigSource().with("key", "1,x").build(true);
+
+        try {
+            config.getValue("key", int[].class);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void stringArray() {
+        ConfigImpl config = new MapConfigSource().with("key", "a\\,b,,c\\\\,d").build(true);
+
+        assertThat(config.getValue("key", String[].class)).containsExactly("a,b", "c\\", "d");
+    }
+
+    @Test
+    public void integerArray() {
+        ConfigImpl config = new MapConfigSource().with("key", "1,,2").build(false);
+
+        assertThat(config.getValue("key", Integer[].class)).containsExactly(1, 2);
+    }
+
+    @Test
+    public void convertList() {
+        ConfigImpl config = new MapConfigSource().build(true);
+
+        List<String> values = config.convertList("a\\\\,b\\,c,", String.class);
+
+        assertThat(values).containsExactly("a\\", "b,c");
+    }
+
+    @Test
+    public void arrayNotShared() {
+        // Arrays can be modified by the caller, so each call has its own.
+        ConfigImpl config = new MapConfigSource().with("key", "1,2").build(true);
+
+        int[] first = config.getValue("key", int[].class);
+        first[0] = 5;
+
+        assertThat(config.getValue("key", int[].class)).containsExactly(1, 2);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.config.converters;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class InstantConverterTest {
+
+    @Test
+    public void convert_utc() {
+        Instant expected = OffsetDateTime.of(2019, 3, 21, 10, 15, 30, 0, ZoneOffset.UTC).toInstant();
+
+        assertThat(InstantConverter.INSTANCE.convert("2019-03-21T10:15:30Z")).isEqualTo(expected);
+    }
+
+    @Test
+    public void convert_offset() {
+        Instant expected = OffsetDateTime.of(2019, 3, 21, 10, 15, 30, 0, ZoneOffset.ofHours(1)).toInstant();
+
+        assertThat(InstantConverter.INSTANCE.convert("2019-03-21T10:15:30+01:00")).isEqualTo(expected);
+    }
+
+    @Test
+    public void convert_withoutOffset() {
+        // No time zone, so not an instant.
+        try {
+            InstantConverter.INSTANCE.convert("2019-03-21T10:15:30");
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage()).isEqualTo("Invalid instant '2019-03-21T10:15:30'");
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2018-2019 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.config.configserver.rest;
+
+import be.atbash.config.configserver.config.ConfigReader;
+import be.atbash.config.configserver.config.TestRootDirectory;
+import be.atbash.config.configserver.metrics.ConfigServerMetrics;
+import be.atbash.util.resource.ResourceUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConfigResourceTest {
+
+    private ConfigReader configReader;
+
+    private RecordingPayloadEncoder payloadEncoder;
+
+    private CountingExecutor executor;
+
+    @BeforeClass
+    public static void setupRootDirectory() throws IOException {
+        TestRootDirectory.setup();
+    }
+
+    @Before
+    public void setup() {
+        ConfigServerMetrics metrics = new ConfigServerMetrics();
+        configReader = new ConfigReader(ResourceUtil.getInstance(), metrics);
+        configReader.init();
+        payloadEncoder = new RecordingPayloadEncoder(metrics);
+        executor = new CountingExecutor();
+    }
+
+    @After
+    public void teardown() {
+        configReader.stop();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void getBatchConfigValues_sequential() {
+        ConfigResource resource = createResource(null);
+
+        Response response = resource.getBatchConfigValues(Arrays.asList("app1", "app1:test", "unknown"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        Map<String, Map<String, String>> batch = payloadEncoder.getBatch();
+        assertThat(batch.keySet()).containsExactly("app1", "app1:test");
+        assertThat(batch.get("app1").get("version")).isEqualTo(String.valueOf(configReader.getSnapshot("app1", null).getVersion()));
+        // The stage without files has the configuration of the application.
+        assertThat(batch.get("app1:test").get("payload")).isEqualTo(batch.get("app1").get("payload"));
+    }
+
+    @Test
+    public void getBatchConfigValues_executor() {
+        ConfigResource resource = createResource(executor);
+
+        Response response = resource.getBatchConfigValues(Arrays.asList("app1", "app1:test", "unknown"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(payloadEncoder.getBatch().keySet()).containsExactly("app1", "app1:test");
+        assertThat(executor.getTasks()).isEqualTo(3);
+    }
+
+    @Test
+    public void getBatchConfigValues_singleApplication() {
+        ConfigResource resource = createResource(executor);
+
+        Response response = resource.getBatchConfigValues(Arrays.asList("app1", "app1"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(payloadEncoder.getBatch().keySet()).containsExactly("app1");
+        // Only one distinct application, no need for the executor.
+        assertThat(executor.getTasks()).isEqualTo(0);
+    }
+
+    @Test
+    public void getBatchConfigValues_maxApplications() {
+        ConfigResource resource = createResource(null);
+
+        // Duplicates are not counted.
+        List<String> applications = applications(50);
+        applications.addAll(applications(10));
+
+        Response response = resource.getBatchConfigValues(applications);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    public void getBatchConfigValues_tooManyApplications() {
+        ConfigResource resource = createResource(executor);
+
+        Response response = resource.getBatchConfigValues(applications(51));
+
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(response.getEntity()).isEqualTo("at most 50 values for parameter 'application' are allowed");
+        assertThat(payloadEncoder.getBatch()).isNull();
+        assertThat(executor.getTasks()).isEqualTo(0);
+    }
+
+    @Test
+    public void getBatchConfigValues_noApplications() {
+        ConfigResource resource = createResource(null);
+
+        Response response = resource.getBatchConfigValues(Collections.emptyList());
+
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(response.getEntity()).isEqualTo("parameter 'application' is required");
+    }
+
+    private ConfigResource createResource(ExecutorService managedExecutor) {
+        return new ConfigResource(configReader, payloadEncoder, null, new ConfigServerMetrics(), managedExecutor);
+    }
+
+    private static List<String> applications(int count) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            result.add("app" + i);
+        }
+        return result;
+    }
+
+    /**
+     * Keeps the batch (the data with an entry per application) instead of creating a JWT.
+     */
+    private static class RecordingPayloadEncoder extends ConfigPayloadEncoder {
+
+        private volatile Map<String, Map<String, String>> batch;
+
+        RecordingPayloadEncoder(ConfigServerMetrics metrics) {
+            super(null, metrics);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public String encode(Map<String, ?> data) {
+            if (!data.isEmpty() && data.values().iterator().next() instanceof Map) {
+                batch = (Map<String, Map<String, String>>) data;
+            }
+            return new TreeMap<>(data).toString();
+        }
+
+        Map<String, Map<String, String>> getBatch() {
+            return batch;
+        }
+    }
+
+    private static class CountingExecutor extends AbstractExecutorService {
+
+        private final ExecutorService delegate = Executors.newFixedThreadPool(2);
+
+        private final AtomicInteger tasks = new AtomicInteger();
+
+        int getTasks() {
+            return tasks.get();
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.incrementAndGet();
+            delegate.execute(command);
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}